@@ -0,0 +1,40 @@
+package org.mule.api.vcs.benchmarks;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//Full download of a branch into an empty workspace
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class CloneBenchmark extends WorkspaceBenchmarkState {
+
+    private File repository;
+    private File workspace;
+
+    @Override
+    protected void prepare() throws IOException {
+        repository = generator.newRepository();
+    }
+
+    @Setup(Level.Invocation)
+    public void createWorkspace() {
+        workspace = generator.newWorkspaceDirectory();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteWorkspace() throws IOException {
+        SyntheticWorkspace.deleteDirectory(workspace);
+    }
+
+    @Benchmark
+    public ApiVCSClient cloneBranch() {
+        return generator.cloneInto(workspace, repository);
+    }
+}
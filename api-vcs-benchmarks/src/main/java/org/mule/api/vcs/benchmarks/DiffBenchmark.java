@@ -0,0 +1,33 @@
+package org.mule.api.vcs.benchmarks;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.diff.Diff;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Workspace status as run by `diff`, `status` and before every push
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DiffBenchmark extends WorkspaceBenchmarkState {
+
+    private ApiVCSClient client;
+
+    @Override
+    protected void prepare() throws IOException {
+        final File workspace = generator.newWorkspaceDirectory();
+        client = generator.cloneInto(workspace, generator.newRepository());
+        generator.applyLocalChanges(workspace);
+    }
+
+    @Benchmark
+    public List<Diff> calculateDiff() {
+        return client.diff().doGetValue();
+    }
+}
@@ -0,0 +1,59 @@
+package org.mule.api.vcs.benchmarks;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Patch;
+import org.mule.api.vcs.client.diff.LineDiff;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//Diffing one large generated spec, the shape of the OAS files that dominate diff time
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineDiffBenchmark {
+
+    @Param({"10000", "100000"})
+    public int lineCount;
+
+    @Param({"0.01"})
+    public double changeRatio;
+
+    private List<String> original;
+    private List<String> revised;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        final Random random = new Random(42);
+        original = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            //Generated specs repeat the same few keys with long, mostly equal prefixes
+            original.add("        \"/resources/" + (i / 50) + "/items/{itemId}\": { \"$ref\": \"#/components/schemas/Item" + random.nextInt(100) + "\" },");
+        }
+        //Lines read from two files are different objects, equal ones are not identical references
+        revised = new ArrayList<>(lineCount);
+        for (String line : original) {
+            revised.add(new String(line));
+        }
+        for (int i = 0; i < lineCount * changeRatio; i++) {
+            revised.set(random.nextInt(revised.size()), "        \"changed\": " + random.nextInt() + ",");
+        }
+    }
+
+    @Benchmark
+    public Patch<String> diffUtils() throws DiffException {
+        return DiffUtils.diff(original, revised);
+    }
+
+    @Benchmark
+    public Patch<String> lineDiff() {
+        return LineDiff.diff(original, revised);
+    }
+}
@@ -0,0 +1,61 @@
+package org.mule.api.vcs.benchmarks;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.diff.ApplyResult;
+import org.mule.api.vcs.client.diff.Diff;
+import org.mule.api.vcs.client.diff.MergingStrategy;
+import org.mule.api.vcs.client.diff.ModifiedFileDiff;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+//Patching files in place, as pull does for every remote modification
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModifiedFileDiffBenchmark extends WorkspaceBenchmarkState {
+
+    private List<ModifiedFileDiff> diffs;
+    private File original;
+    private File target;
+
+    @Override
+    protected void prepare() throws IOException {
+        final File workspace = generator.newWorkspaceDirectory();
+        original = generator.newWorkspaceDirectory();
+        generator.cloneInto(original, generator.newRepository());
+        final ApiVCSClient client = generator.cloneInto(workspace, generator.newRepository());
+        generator.applyLocalChanges(workspace);
+        diffs = client.diff().doGetValue().stream()
+                .filter((diff) -> diff instanceof ModifiedFileDiff)
+                .map((diff) -> (ModifiedFileDiff) diff)
+                .collect(Collectors.toList());
+        target = generator.newWorkspaceDirectory();
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreOriginals() throws IOException {
+        for (Diff diff : diffs) {
+            final File targetFile = new File(target, diff.getRelativePath());
+            targetFile.getParentFile().mkdirs();
+            Files.copy(new File(original, diff.getRelativePath()).toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Benchmark
+    public void apply(Blackhole blackhole) {
+        for (ModifiedFileDiff diff : diffs) {
+            final ApplyResult result = diff.apply(target, MergingStrategy.KEEP_BOTH);
+            blackhole.consume(result);
+        }
+    }
+}
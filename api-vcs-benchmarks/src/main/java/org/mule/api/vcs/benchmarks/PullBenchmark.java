@@ -0,0 +1,40 @@
+package org.mule.api.vcs.benchmarks;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.DefaultMergeListener;
+import org.mule.api.vcs.client.ValueResult;
+import org.mule.api.vcs.client.diff.MergingStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//Fetching concurrent remote edits and applying them over local edits, conflicts are kept on both sides
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class PullBenchmark extends WorkspaceBenchmarkState {
+
+    private File workspace;
+    private ApiVCSClient client;
+
+    @Setup(Level.Invocation)
+    public void cloneAndEdit() throws IOException {
+        workspace = generator.newWorkspaceDirectory();
+        client = generator.cloneInto(workspace, generator.newRepository());
+        generator.applyLocalChanges(workspace);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteWorkspace() throws IOException {
+        SyntheticWorkspace.deleteDirectory(workspace);
+    }
+
+    @Benchmark
+    public ValueResult<Void> pull() {
+        return client.pull(SyntheticWorkspace.userInfo(), MergingStrategy.KEEP_BOTH, new DefaultMergeListener());
+    }
+}
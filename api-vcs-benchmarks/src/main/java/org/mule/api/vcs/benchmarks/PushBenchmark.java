@@ -0,0 +1,47 @@
+package org.mule.api.vcs.benchmarks;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.DefaultMergeListener;
+import org.mule.api.vcs.client.ValueResult;
+import org.mule.api.vcs.client.diff.MergingStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//Pull of the concurrent remote edits followed by the upload of the local ones
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class PushBenchmark extends WorkspaceBenchmarkState {
+
+    private File workspace;
+    private ApiVCSClient client;
+
+    @Setup(Level.Invocation)
+    public void cloneAndEdit() throws IOException {
+        if (generator.conflictingFiles() > 0) {
+            throw new IllegalArgumentException("Push is rejected while there are conflicts, run it with conflictRatio=0");
+        }
+        workspace = generator.newWorkspaceDirectory();
+        client = generator.cloneInto(workspace, generator.newRepository());
+        generator.applyLocalChanges(workspace);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteWorkspace() throws IOException {
+        SyntheticWorkspace.deleteDirectory(workspace);
+    }
+
+    @Benchmark
+    public ValueResult<Void> push() {
+        final ValueResult<Void> result = client.push(SyntheticWorkspace.userInfo(), MergingStrategy.KEEP_BOTH, new DefaultMergeListener());
+        if (result.isFailure()) {
+            throw new IllegalStateException(result.getMessage().orElse("Push failed"));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,197 @@
+package org.mule.api.vcs.benchmarks;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.ValueResult;
+import org.mule.api.vcs.client.service.MockFileManager;
+import org.mule.api.vcs.client.service.UserInfoProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//Generates a remote repository in the layout MockFileManager expects plus local and concurrent remote edits.
+//Local edits touch the first line of the first `changeRatio` files, concurrent remote edits touch the last line of as
+//many files counting from the end, and the first `conflictRatio` files are edited on the same line on both sides.
+public class SyntheticWorkspace {
+
+    public static final String BRANCH = "master";
+    private static final int LINE_LENGTH = 40;
+    private static final int FILES_PER_FOLDER = 50;
+
+    private final int fileCount;
+    private final int fileSize;
+    private final double changeRatio;
+    private final double conflictRatio;
+    private final long seed;
+    private final File root;
+
+    public SyntheticWorkspace(int fileCount, int fileSize, double changeRatio, double conflictRatio, long seed) throws IOException {
+        if (conflictRatio > changeRatio) {
+            throw new IllegalArgumentException("Only changed files can conflict, conflict ratio " + conflictRatio + " is bigger than change ratio " + changeRatio);
+        }
+        this.fileCount = fileCount;
+        this.fileSize = fileSize;
+        this.changeRatio = changeRatio;
+        this.conflictRatio = conflictRatio;
+        this.seed = seed;
+        this.root = Files.createTempDirectory("apivcs-benchmark").toFile();
+    }
+
+    public static SyntheticWorkspace generate(int fileCount, int fileSize, double changeRatio, double conflictRatio) throws IOException {
+        final SyntheticWorkspace workspace = new SyntheticWorkspace(fileCount, fileSize, changeRatio, conflictRatio, 42);
+        workspace.generateRemote();
+        return workspace;
+    }
+
+    public List<String> paths() {
+        final List<String> result = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            result.add("folder" + (i / FILES_PER_FOLDER) + "/Type" + i + ".raml");
+        }
+        return result;
+    }
+
+    public int changedFiles() {
+        return (int) Math.round(fileCount * changeRatio);
+    }
+
+    public int conflictingFiles() {
+        return (int) Math.round(fileCount * conflictRatio);
+    }
+
+    //A fresh copy of the remote repository, first lock sees the generated content and the second one the concurrent edits
+    public File newRepository() throws IOException {
+        final File repository = new File(root, "repository-" + System.nanoTime());
+        copyDirectory(new File(root, "remote"), repository);
+        return repository;
+    }
+
+    public File newWorkspaceDirectory() {
+        final File workspace = new File(root, "workspace-" + System.nanoTime());
+        workspace.mkdirs();
+        return workspace;
+    }
+
+    public ApiVCSClient cloneInto(File workspace, File repository) {
+        final ApiVCSClient client = new ApiVCSClient(workspace, new MockFileManager(repository));
+        final ValueResult<Void> result = client.clone(userInfo(), new BranchInfo("benchmark", BRANCH, "benchmark"));
+        if (result.isFailure()) {
+            throw new IllegalStateException(result.getMessage().orElse("Clone failed"));
+        }
+        return client;
+    }
+
+    public void applyLocalChanges(File workspace) throws IOException {
+        final List<String> paths = paths();
+        for (int i = 0; i < changedFiles(); i++) {
+            final Path file = new File(workspace, paths.get(i)).toPath();
+            final List<String> lines = Files.readAllLines(file, BranchInfo.DEFAULT_CHARSET);
+            final int line = i < conflictingFiles() ? lines.size() / 2 : 0;
+            lines.set(line, "local" + lines.get(line));
+            Files.write(file, lines, BranchInfo.DEFAULT_CHARSET);
+        }
+    }
+
+    public static UserInfoProvider userInfo() {
+        return new UserInfoProvider() {
+            @Override
+            public String getAccessToken() {
+                return "benchmark";
+            }
+
+            @Override
+            public String getOrgId() {
+                return "benchmark";
+            }
+
+            @Override
+            public String getUserId() {
+                return "benchmark";
+            }
+        };
+    }
+
+    public void delete() throws IOException {
+        deleteDirectory(root);
+    }
+
+    private void generateRemote() throws IOException {
+        final Random random = new Random(seed);
+        final File original = new File(root, "remote" + File.separator + BRANCH + File.separator + "t0");
+        final File concurrent = new File(root, "remote" + File.separator + BRANCH + File.separator + "t1");
+        final List<String> paths = paths();
+        final int firstRemoteChange = fileCount - (changedFiles() - conflictingFiles());
+        for (int i = 0; i < paths.size(); i++) {
+            final List<String> lines = randomLines(random);
+            write(new File(original, paths.get(i)), lines);
+            if (i < conflictingFiles()) {
+                lines.set(lines.size() / 2, "remote" + lines.get(lines.size() / 2));
+            } else if (i >= firstRemoteChange) {
+                lines.set(lines.size() - 1, "remote" + lines.get(lines.size() - 1));
+            }
+            write(new File(concurrent, paths.get(i)), lines);
+        }
+    }
+
+    private List<String> randomLines(Random random) {
+        final List<String> lines = new ArrayList<>();
+        lines.add("#%RAML 1.0 DataType");
+        lines.add("properties:");
+        final int lineCount = Math.max(1, fileSize / LINE_LENGTH);
+        while (lines.size() < lineCount + 2) {
+            final StringBuilder line = new StringBuilder("  p").append(lines.size()).append(": ");
+            while (line.length() < LINE_LENGTH) {
+                line.append((char) ('a' + random.nextInt(26)));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static void write(File file, List<String> lines) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), lines, BranchInfo.DEFAULT_CHARSET);
+    }
+
+    private static void copyDirectory(File source, File target) throws IOException {
+        final Path sourcePath = source.toPath();
+        final Path targetPath = target.toPath();
+        Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(targetPath.resolve(sourcePath.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, targetPath.resolve(sourcePath.relativize(file)));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public static void deleteDirectory(File directory) throws IOException {
+        if (!directory.exists()) {
+            return;
+        }
+        Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package org.mule.api.vcs.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+@State(Scope.Benchmark)
+public abstract class WorkspaceBenchmarkState {
+
+    @Param({"100", "1000"})
+    public int fileCount;
+
+    //Approximate size of every file in bytes
+    @Param({"4096"})
+    public int fileSize;
+
+    @Param({"0.1"})
+    public double changeRatio;
+
+    @Param({"0.0"})
+    public double conflictRatio;
+
+    protected SyntheticWorkspace generator;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        generator = SyntheticWorkspace.generate(fileCount, fileSize, changeRatio, conflictRatio);
+        prepare();
+    }
+
+    //JMH gives no ordering guarantee between trial setups across the hierarchy, so subclasses hook here
+    protected void prepare() throws IOException {
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        generator.delete();
+    }
+}
@@ -1,15 +1,33 @@
 package org.mule.api.vcs.cli;
 
+import org.mule.api.vcs.client.service.impl.HttpTransport;
 import org.mule.cs.api.CoreServicesAPIReferenceClient;
 import org.mule.apidesigner.api.ApiDesignerXapiClient;
 
+import javax.ws.rs.client.Client;
+
+//Clients are stateless, one of each is enough and they all share the pooled transport
 public class ApiClientFactory {
 
-    public static CoreServicesAPIReferenceClient coreServices() {
-        return CoreServicesAPIReferenceClient.create();
+    private static CoreServicesAPIReferenceClient coreServices;
+    private static ApiDesignerXapiClient apiDesigner;
+
+    public static synchronized CoreServicesAPIReferenceClient coreServices() {
+        if (coreServices == null) {
+            coreServices = new CoreServicesAPIReferenceClient() {
+                @Override
+                protected Client getClient() {
+                    return HttpTransport.shared().getClient();
+                }
+            };
+        }
+        return coreServices;
     }
 
-    public static ApiDesignerXapiClient apiDesigner() {
-        return ApiDesignerXapiClient.create();
+    public static synchronized ApiDesignerXapiClient apiDesigner() {
+        if (apiDesigner == null) {
+            apiDesigner = HttpTransport.shared().apiDesignerClient();
+        }
+        return apiDesigner;
     }
 }
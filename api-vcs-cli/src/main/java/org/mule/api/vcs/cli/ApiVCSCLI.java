@@ -4,24 +4,74 @@ import org.mule.api.vcs.cli.exceptions.ConfigurationException;
 import org.mule.apidesigner.exceptions.ApiDesignerXapiException;
 import picocli.CommandLine;
 
+import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
 public class ApiVCSCLI {
 
+    //Set to run every command in process even when a daemon is running
+    public static final String NO_DAEMON_ENV = "APIVCS_NO_DAEMON";
+
     public static void main(String[] args) {
+        if (shouldUseDaemon(args)) {
+            final Optional<Integer> daemonResult = DaemonClient.inUserHome().execute(new File("."), args);
+            if (daemonResult.isPresent()) {
+                System.exit(daemonResult.get());
+            }
+        }
+        System.exit(execute(args));
+    }
 
-        final int commandLine = new CommandLine(new ApiVCSCommand()).setExecutionExceptionHandler((e, commandLine1, parseResult) -> {
-            if (e instanceof ConfigurationException) {
-                System.err.println(e.getMessage());
-            } else if (e instanceof ApiDesignerXapiException) {
-                final String s = ((ApiDesignerXapiException) e).getResponse().readEntity(String.class);
-                System.out.println(((ApiDesignerXapiException) e).getStatusCode() + " " + ((ApiDesignerXapiException) e).getReason());
-                System.out.println(s);
-                e.printStackTrace();
-            } else {
-                e.printStackTrace();
+    static int execute(String[] args) {
+        final CommandLine commandLine = new CommandLine(new ApiVCSCommand());
+        final int exitCode = commandLine.setExecutionExceptionHandler((e, commandLine1, parseResult) -> {
+            final Object command = commandLine1.getCommand();
+            if (command instanceof BaseAuthorizedCommand && command instanceof Callable && BaseAuthorizedCommand.isUnauthorized(e)
+                    && ((BaseAuthorizedCommand) command).discardRejectedSession()) {
+                //The cached session was revoked or outlived by the server, run once more with a new login
+                try {
+                    return ((Callable<Integer>) command).call();
+                } catch (Exception retryFailure) {
+                    return reportFailure(retryFailure);
+                }
             }
-            return -1;
+            return reportFailure(e);
         }).execute(args);
-        System.exit(commandLine);
+        printTimings(commandLine.getParseResult());
+        return exitCode;
+    }
+
+    private static int reportFailure(Exception e) {
+        if (e instanceof ConfigurationException) {
+            System.err.println(e.getMessage());
+        } else if (e instanceof ApiDesignerXapiException) {
+            final String s = ((ApiDesignerXapiException) e).getResponse().readEntity(String.class);
+            System.out.println(((ApiDesignerXapiException) e).getStatusCode() + " " + ((ApiDesignerXapiException) e).getReason());
+            System.out.println(s);
+            e.printStackTrace();
+        } else {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private static void printTimings(CommandLine.ParseResult parseResult) {
+        if (parseResult == null) {
+            return;
+        }
+        CommandLine.ParseResult executed = parseResult;
+        while (executed.hasSubcommand()) {
+            executed = executed.subcommand();
+        }
+        final Object command = executed.commandSpec().userObject();
+        if (command instanceof BaseCommand) {
+            ((BaseCommand) command).printTimings();
+        }
+    }
+
+    private static boolean shouldUseDaemon(String[] args) {
+        return args.length > 0 && !args[0].equals("daemon") && System.getenv(NO_DAEMON_ENV) == null;
     }
 
 }
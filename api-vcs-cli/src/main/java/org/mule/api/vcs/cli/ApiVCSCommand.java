@@ -13,7 +13,10 @@ import picocli.CommandLine;
                 StatusCommand.class,
                 RevertCommand.class,
                 RevertAllCommand.class,
-                PublishCommand.class
+                PublishCommand.class,
+                SyncCommand.class,
+                MirrorCommand.class,
+                DaemonCommand.class
         }
 )
 public class ApiVCSCommand implements Runnable {
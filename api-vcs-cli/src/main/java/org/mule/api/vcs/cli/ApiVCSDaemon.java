@@ -0,0 +1,290 @@
+package org.mule.api.vcs.cli;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Runs commands for the CLI front end inside one long lived JVM so clients, sessions and indexes stay warm
+public class ApiVCSDaemon {
+
+    static final int EXECUTE = 0;
+    static final int STOP = 1;
+
+    static final byte ACCEPTED = 'A';
+    //The caller's JVM is configured differently, it has to run the command itself
+    static final byte DECLINED = 'D';
+    static final byte OUT = 'O';
+    static final byte ERR = 'E';
+    static final byte EXIT = 'X';
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 3 * 60 * 60 * 1000;
+    //A client that connected has this long to send its command
+    private static final int REQUEST_TIMEOUT_MILLIS = 10 * 1000;
+    //System properties commands read, they are global to the JVM so they can not be set per command
+    private static final String HOME_PROPERTY = "user.home";
+    private static final String APIVCS_PROPERTIES_PREFIX = "apivcs.";
+
+    private final File daemonFile;
+    private final long idleTimeoutMillis;
+    private final AtomicInteger runningCommands = new AtomicInteger();
+    private volatile boolean running;
+    private volatile ServerSocket serverSocket;
+
+    public ApiVCSDaemon(File daemonFile, long idleTimeoutMillis) {
+        this.daemonFile = daemonFile;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    static Map<String, String> sharedProperties(Properties properties) {
+        final Map<String, String> result = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.equals(HOME_PROPERTY) || name.startsWith(APIVCS_PROPERTIES_PREFIX)) {
+                result.put(name, properties.getProperty(name));
+            }
+        }
+        return result;
+    }
+
+    public void run() throws IOException {
+        final PrintStream log = System.out;
+        final CommandOutput commandOut = new CommandOutput(System.out);
+        final CommandOutput commandErr = new CommandOutput(System.err);
+        System.setOut(new PrintStream(commandOut, true));
+        System.setErr(new PrintStream(commandErr, true));
+        final ExecutorService commands = Executors.newCachedThreadPool();
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            this.serverSocket = serverSocket;
+            final DaemonEndpoint endpoint = DaemonEndpoint.withNewToken(serverSocket.getLocalPort());
+            endpoint.store(daemonFile);
+            serverSocket.setSoTimeout((int) Math.min(idleTimeoutMillis, Integer.MAX_VALUE));
+            log.println("apivcs daemon listening on " + serverSocket.getLocalSocketAddress() + ".");
+            running = true;
+            try {
+                while (running) {
+                    final Socket socket;
+                    try {
+                        socket = serverSocket.accept();
+                    } catch (SocketTimeoutException e) {
+                        if (runningCommands.get() == 0) {
+                            log.println("apivcs daemon idle, stopping.");
+                            running = false;
+                        }
+                        continue;
+                    } catch (IOException e) {
+                        if (running) {
+                            log.println("[Warning] apivcs daemon could not accept a request: " + e.getMessage());
+                        }
+                        continue;
+                    }
+                    //Each command on its own thread, a long sync does not hold back a status
+                    commands.execute(() -> {
+                        try (Socket client = socket) {
+                            serve(client, endpoint, commandOut, commandErr);
+                        } catch (IOException e) {
+                            //A client going away does not affect the others
+                            log.println("[Warning] apivcs daemon request failed: " + e.getMessage());
+                        }
+                    });
+                }
+            } finally {
+                //Only remove the endpoint if a newer daemon did not replace it
+                DaemonEndpoint.load(daemonFile)
+                        .filter((current) -> current.getToken().equals(endpoint.getToken()))
+                        .ifPresent((current) -> daemonFile.delete());
+            }
+        } finally {
+            commands.shutdown();
+            try {
+                commands.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.setOut(commandOut.daemonStream);
+            System.setErr(commandErr.daemonStream);
+        }
+    }
+
+    private void serve(Socket socket, DaemonEndpoint endpoint, CommandOutput commandOut, CommandOutput commandErr) throws IOException {
+        socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        final String token = in.readUTF();
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), endpoint.getToken().getBytes(StandardCharsets.UTF_8))) {
+            return;
+        }
+        final int operation = in.readInt();
+        if (operation == STOP) {
+            running = false;
+            //Wakes up the accept loop, running commands are waited for
+            serverSocket.close();
+            out.writeByte(EXIT);
+            out.writeInt(0);
+            out.flush();
+            return;
+        }
+        final File workingDirectory = new File(in.readUTF());
+        final String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+        final Map<String, String> environment = readMap(in);
+        final Map<String, String> properties = readMap(in);
+        if (!properties.equals(sharedProperties(System.getProperties()))) {
+            out.writeByte(DECLINED);
+            out.flush();
+            return;
+        }
+        socket.setSoTimeout(0);
+        out.writeByte(ACCEPTED);
+        out.flush();
+        runningCommands.incrementAndGet();
+        final int exitCode;
+        try {
+            exitCode = execute(workingDirectory, args, environment, out, commandOut, commandErr);
+        } finally {
+            runningCommands.decrementAndGet();
+        }
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    private int execute(File workingDirectory, String[] args, Map<String, String> environment, DataOutputStream out, CommandOutput commandOut, CommandOutput commandErr) {
+        final FrameOutputStream stdout = new FrameOutputStream(out, OUT);
+        final FrameOutputStream stderr = new FrameOutputStream(out, ERR);
+        commandOut.set(stdout);
+        commandErr.set(stderr);
+        try {
+            return BaseCommand.runIn(workingDirectory, environment, () -> ApiVCSCLI.execute(args));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return -1;
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            stdout.finish();
+            stderr.finish();
+            commandOut.remove();
+            commandErr.remove();
+        }
+    }
+
+    static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            result.put(in.readUTF(), in.readUTF());
+        }
+        return result;
+    }
+
+    //Installed as System.out or System.err, sends what a command prints to its own client. Threads the command starts
+    //inherit its stream, output of any other thread goes to the daemon's own stream
+    private static class CommandOutput extends OutputStream {
+        private final PrintStream daemonStream;
+        private final InheritableThreadLocal<FrameOutputStream> commandStream = new InheritableThreadLocal<>();
+
+        CommandOutput(PrintStream daemonStream) {
+            this.daemonStream = daemonStream;
+        }
+
+        void set(FrameOutputStream stream) {
+            commandStream.set(stream);
+        }
+
+        void remove() {
+            commandStream.remove();
+        }
+
+        private OutputStream current() {
+            final FrameOutputStream stream = commandStream.get();
+            //A pooled thread may outlive the command that created it
+            return stream != null && !stream.isFinished() ? stream : daemonStream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+    }
+
+    //Tags every chunk written by the command with the stream it belongs to
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte stream;
+        private volatile boolean finished;
+
+        FrameOutputStream(DataOutputStream out, byte stream) {
+            this.out = out;
+            this.stream = stream;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        void finish() {
+            finished = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            //Background threads of the command may print at the same time
+            synchronized (out) {
+                out.writeByte(stream);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            //The socket outlives the command
+            flush();
+        }
+    }
+}
@@ -9,11 +9,12 @@ import org.mule.api.vcs.client.service.impl.ApiRepositoryFileManager;
 
 import java.io.File;
 import java.util.List;
+import java.util.Optional;
 
 public class ApivcsDemoRunner {
     public static void main(String[] args) {
         final ApiVCSClient apiVCSClient = new ApiVCSClient(new File("/Users/mdeachaval/labs/tmp/apis/Greeting API"), new ApiRepositoryFileManager());
-        apiVCSClient.publish(new BaseAuthorizedCommand.CoreServicesUserInfoProvider(Lazy.lazily(() -> "andes"), Lazy.lazily(() -> "Andes1"), "2f45ba3e-06fc-4bb5-91f8-2e0a3a6f540f"), MergingStrategy.KEEP_BOTH, new MergeListener() {
+        apiVCSClient.publish(new BaseAuthorizedCommand.CoreServicesUserInfoProvider(Optional.of("andes"), Lazy.lazily(() -> "Andes1"), "2f45ba3e-06fc-4bb5-91f8-2e0a3a6f540f", SessionCache.inUserHome()), MergingStrategy.KEEP_BOTH, new MergeListener() {
             @Override
             public void applied(Diff diff, ApplyResult apply) {
 
@@ -43,6 +44,11 @@ public class ApivcsDemoRunner {
             public void endPushing() {
 
             }
+
+            @Override
+            public void waitingForLock(String owner, long waitedMillis, long maxWaitMillis) {
+
+            }
         });
     }
 }
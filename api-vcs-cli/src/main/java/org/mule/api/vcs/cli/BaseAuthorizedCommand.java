@@ -2,9 +2,11 @@ package org.mule.api.vcs.cli;
 
 import org.mule.api.vcs.cli.exceptions.ConfigurationException;
 import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.diff.FileUtils;
 import org.mule.api.vcs.client.service.UserInfoProvider;
-import org.mule.api.vcs.client.service.impl.ApiRepositoryFileManager;
+import org.mule.apidesigner.exceptions.ApiDesignerXapiException;
 import org.mule.cs.exceptions.CoreServicesAPIReferenceException;
+import org.mule.cs.resource.api.me.model.User;
 import org.mule.cs.resource.login.model.LoginPOSTBody;
 import org.mule.cs.resource.login.model.LoginPOSTResponseBody;
 import org.mule.cs.responses.CoreServicesAPIReferenceResponse;
@@ -13,13 +15,18 @@ import picocli.CommandLine.Option;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.mule.api.vcs.cli.ApiClientFactory.coreServices;
 
 public class BaseAuthorizedCommand extends BaseCommand {
 
+    private static final int UNAUTHORIZED = 401;
+
     @Option(names = {"-u", "--username"}, description = "The username to be used to log into our platform.")
     private String userName;
 
@@ -29,19 +36,50 @@ public class BaseAuthorizedCommand extends BaseCommand {
     @Option(names = {"-o", "--organization"}, description = "The username to be used to log into our platform.")
     private String organization;
 
+    private static final Map<String, UserInfoProvider> DAEMON_PROVIDERS = new ConcurrentHashMap<>();
+
     private ApiVCSConfig globalConfig;
 
-    public UserInfoProvider getAccessTokenProvider() {
-        final Optional<ApiVCSConfig> globalConfig = getGlobalConfig();
-        Lazy<String> userId = Lazy.lazily(() -> {
-            if (userName != null) {
-                return this.userName;
-            } else if (globalConfig.isPresent() && globalConfig.get().getUserName().isPresent()) {
-                return globalConfig.get().getUserName().get();
-            } else {
-                throw new ConfigurationException("Missing --username parameter.");
+    private UserInfoProvider accessTokenProvider;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    //One provider per command so the login and identity lookups happen at most once
+    public synchronized UserInfoProvider getAccessTokenProvider() {
+        if (accessTokenProvider == null) {
+            accessTokenProvider = createAccessTokenProvider();
+        }
+        return accessTokenProvider;
+    }
+
+    //Drops a session the platform rejected so the command can be run again with a new login, unless that session
+    //was already logged in while this command ran
+    boolean discardRejectedSession() {
+        return accessTokenProvider instanceof CoreServicesUserInfoProvider && ((CoreServicesUserInfoProvider) accessTokenProvider).discardSessionOlderThan(startedAt);
+    }
+
+    static boolean isUnauthorized(Throwable e) {
+        Throwable current = e;
+        while (current != null) {
+            if (current instanceof ApiDesignerXapiException && ((ApiDesignerXapiException) current).getStatusCode() == UNAUTHORIZED) {
+                return true;
             }
-        });
+            if (current instanceof CoreServicesAPIReferenceException && ((CoreServicesAPIReferenceException) current).getStatusCode() == UNAUTHORIZED) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    private UserInfoProvider createAccessTokenProvider() {
+        final Optional<ApiVCSConfig> globalConfig = getGlobalConfig();
+        Optional<String> userId = Optional.empty();
+        if (userName != null) {
+            userId = Optional.of(this.userName);
+        } else if (globalConfig.isPresent() && globalConfig.get().getUserName().isPresent()) {
+            userId = globalConfig.get().getUserName();
+        }
 
         Lazy<String> password = Lazy.lazily(() -> {
             if (this.password != null) {
@@ -61,7 +99,19 @@ public class BaseAuthorizedCommand extends BaseCommand {
             orgId = globalConfig.get().getOrganization().get();
         }
 
-        return new CoreServicesUserInfoProvider(userId, password, orgId);
+        if (isInDaemon()) {
+            //The daemon keeps one provider per credentials so the session stays in memory between commands, another
+            //password (given on the command line or in the global config) gets a provider of its own that logs in with it
+            final Optional<String> knownPassword = this.password != null ? Optional.of(this.password) : globalConfig.flatMap(ApiVCSConfig::getPassword);
+            final String passwordKey = knownPassword.map((value) -> FileUtils.contentHash(value.getBytes(StandardCharsets.UTF_8))).orElse("");
+            final String key = userId.orElse("") + "|" + Optional.ofNullable(orgId).orElse("") + "|" + passwordKey;
+            final Optional<String> username = userId;
+            final String organization = orgId;
+            final boolean reuseCachedSession = this.password == null;
+            return DAEMON_PROVIDERS.computeIfAbsent(key, (k) -> new CoreServicesUserInfoProvider(username, password, organization, SessionCache.inUserHome(), reuseCachedSession));
+        }
+        //A password given on the command line is meant to be used, not a session from an earlier login
+        return new CoreServicesUserInfoProvider(userId, password, orgId, SessionCache.inUserHome(), this.password == null);
     }
 
     private Optional<ApiVCSConfig> getGlobalConfig() {
@@ -84,42 +134,102 @@ public class BaseAuthorizedCommand extends BaseCommand {
 
     static class CoreServicesUserInfoProvider implements UserInfoProvider {
 
+        private Optional<String> username;
+        private Lazy<String> password;
+        private String orgId;
+        private SessionCache sessionCache;
+        private boolean reuseCachedSession;
+        private SessionCache.Session session;
+        //0 while the session is the one loaded from the cache
+        private long loggedInAt;
 
-        private Lazy<String> orgId;
-        private Lazy<String> userId;
-        private Lazy<String> accessToken;
-
-
-        public CoreServicesUserInfoProvider(Lazy<String> username, Lazy<String> password, String orgId) {
-
-            final Optional<String> maybeOrgId = Optional.ofNullable(orgId);
-            this.orgId = maybeOrgId.map((id) -> Lazy.lazily(() -> id))
-                    .orElse(Lazy.lazily(() -> coreServices().api.me.get(getAccessToken()).getBody().getUser().getOrganizationId()));
-            this.userId = Lazy.lazily(() -> coreServices().api.me.get(getAccessToken()).getBody().getUser().getId());
-            this.accessToken = Lazy.lazily(() -> {
-                try {
-                    final CoreServicesAPIReferenceResponse<LoginPOSTResponseBody> userData = coreServices().login.post(new LoginPOSTBody(username.get(), password.get()));
-                    return userData.getBody().getAccessToken();
-                } catch (CoreServicesAPIReferenceException e) {
-                    throw new RuntimeException("Invalid username password");
-                }
-            });
+        public CoreServicesUserInfoProvider(Optional<String> username, Lazy<String> password, String orgId, SessionCache sessionCache) {
+            this(username, password, orgId, sessionCache, true);
+        }
 
+        public CoreServicesUserInfoProvider(Optional<String> username, Lazy<String> password, String orgId, SessionCache sessionCache, boolean reuseCachedSession) {
+            this.username = username;
+            this.password = password;
+            this.orgId = orgId;
+            this.sessionCache = sessionCache;
+            this.reuseCachedSession = reuseCachedSession;
         }
 
         @Override
         public String getAccessToken() {
-            return accessToken.get();
+            return session().getAccessToken();
         }
 
         @Override
         public String getOrgId() {
-            return this.orgId.get();
+            if (orgId != null) {
+                return orgId;
+            }
+            return identifiedSession().getOrgId().get();
         }
 
         @Override
         public String getUserId() {
-            return this.userId.get();
+            return identifiedSession().getUserId().get();
+        }
+
+        private synchronized SessionCache.Session session() {
+            if (session == null && reuseCachedSession) {
+                //A session of a different user than the one asked for can not be reused
+                session = sessionCache.load()
+                        .filter((cached) -> !username.isPresent() || username.get().equals(cached.getUsername()))
+                        .orElse(null);
+            }
+            if (session == null || session.isExpiring(System.currentTimeMillis())) {
+                session = login();
+                loggedInAt = System.currentTimeMillis();
+                sessionCache.store(session);
+            }
+            return session;
+        }
+
+        synchronized boolean discardSessionOlderThan(long millis) {
+            if (session == null || loggedInAt >= millis) {
+                return false;
+            }
+            sessionCache.clear();
+            //Expired, so the next use logs in again as the same user and keeps its identity
+            session = new SessionCache.Session(session.getUsername(), session.getAccessToken(), session.getUserId().orElse(null), session.getOrgId().orElse(null), 0);
+            reuseCachedSession = false;
+            return true;
+        }
+
+        private synchronized SessionCache.Session identifiedSession() {
+            final SessionCache.Session current = session();
+            if (current.getUserId().isPresent() && current.getOrgId().isPresent()) {
+                return current;
+            }
+            final User user = coreServices().api.me.get(current.getAccessToken()).getBody().getUser();
+            session = current.withIdentity(user.getId(), user.getOrganizationId());
+            sessionCache.store(session);
+            return session;
+        }
+
+        private SessionCache.Session login() {
+            final String loginName = username.orElseGet(() -> {
+                if (session != null) {
+                    return session.getUsername();
+                }
+                throw new ConfigurationException("Missing --username parameter.");
+            });
+            final String accessToken;
+            try {
+                final CoreServicesAPIReferenceResponse<LoginPOSTResponseBody> userData = coreServices().login.post(new LoginPOSTBody(loginName, password.get()));
+                accessToken = userData.getBody().getAccessToken();
+            } catch (CoreServicesAPIReferenceException e) {
+                throw new RuntimeException("Invalid username password");
+            }
+            final long expiresAt = System.currentTimeMillis() + SessionCache.DEFAULT_TOKEN_TTL_MILLIS;
+            if (session != null && session.getUsername().equals(loginName)) {
+                //Same user, the identity is still valid
+                return new SessionCache.Session(loginName, accessToken, session.getUserId().orElse(null), session.getOrgId().orElse(null), expiresAt);
+            }
+            return new SessionCache.Session(loginName, accessToken, null, null, expiresAt);
         }
     }
 
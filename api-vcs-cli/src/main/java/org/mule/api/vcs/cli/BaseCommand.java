@@ -1,18 +1,115 @@
 package org.mule.api.vcs.cli;
 
 import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.LockWaitPolicy;
+import org.mule.api.vcs.client.metrics.InMemoryMetricsRegistry;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+import org.mule.api.vcs.client.service.RepositoryFileManager;
 import org.mule.api.vcs.client.service.impl.ApiRepositoryFileManager;
+import org.mule.api.vcs.client.service.resilience.CircuitBreaker;
+import org.mule.api.vcs.client.service.resilience.RetryPolicy;
+import picocli.CommandLine.Option;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 public class BaseCommand {
+
+    //Directory the command was invoked from when it runs inside the daemon
+    private static final ThreadLocal<File> DAEMON_WORKING_DIRECTORY = new ThreadLocal<>();
+    //Environment of the caller of the command running inside the daemon
+    private static final ThreadLocal<Map<String, String>> DAEMON_ENVIRONMENT = new ThreadLocal<>();
+    //The daemon reuses clients so their index, content cache and pools survive between commands
+    private static final Map<File, ApiVCSClient> DAEMON_CLIENTS = new ConcurrentHashMap<>();
+    //Commands run side by side in the daemon, but only one at a time uses the client of a workspace
+    private static final Map<File, ReentrantLock> DAEMON_WORKSPACE_LOCKS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<List<ReentrantLock>> DAEMON_HELD_LOCKS = ThreadLocal.withInitial(ArrayList::new);
+
+    //Shared so a daemon stops calling API Designer while it is down, whichever command runs
+    private static final CircuitBreaker CIRCUIT_BREAKER = new CircuitBreaker();
+
+    @Option(names = {"--timings"}, description = "Prints how long each phase of the command took.")
+    private boolean timings;
+
+    @Option(names = {"--max-retries"}, description = "How many times a failed request that is safe to repeat is retried.")
+    private int maxRetries = RetryPolicy.DEFAULT_MAX_ATTEMPTS - 1;
+
+    @Option(names = {"--lock-wait"}, description = "Seconds to wait for a branch locked by someone else before failing.")
+    private long lockWaitSeconds;
+
+    private final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+
+    static <T> T runIn(File workingDirectory, Map<String, String> environment, Supplier<T> command) {
+        DAEMON_WORKING_DIRECTORY.set(workingDirectory);
+        DAEMON_ENVIRONMENT.set(environment);
+        try {
+            return command.get();
+        } finally {
+            for (ReentrantLock lock : DAEMON_HELD_LOCKS.get()) {
+                lock.unlock();
+            }
+            DAEMON_HELD_LOCKS.remove();
+            DAEMON_ENVIRONMENT.remove();
+            DAEMON_WORKING_DIRECTORY.remove();
+        }
+    }
+
+    //Environment variables have to be read through here, System.getenv in the daemon is not the caller's
+    protected static String getenv(String name) {
+        return isInDaemon() ? DAEMON_ENVIRONMENT.get().get(name) : System.getenv(name);
+    }
+
+    protected static boolean isInDaemon() {
+        return DAEMON_WORKING_DIRECTORY.get() != null;
+    }
+
     protected ApiVCSClient createLocalApiVcsClient() throws IOException {
         final File targetDirectory = getLocalWorkspaceDirectory();
-        return new ApiVCSClient(targetDirectory, new ApiRepositoryFileManager());
+        if (isInDaemon()) {
+            final ReentrantLock lock = DAEMON_WORKSPACE_LOCKS.computeIfAbsent(targetDirectory, (directory) -> new ReentrantLock());
+            lock.lock();
+            DAEMON_HELD_LOCKS.get().add(lock);
+            return configure(DAEMON_CLIENTS.computeIfAbsent(targetDirectory, (directory) -> new ApiVCSClient(directory, createFileManager())));
+        }
+        return configure(new ApiVCSClient(targetDirectory, createFileManager()));
+    }
+
+    protected RepositoryFileManager createFileManager() {
+        return new ApiRepositoryFileManager();
+    }
+
+    protected ApiVCSClient configure(ApiVCSClient client) {
+        client.setMetricsRegistry(timings ? metrics : MetricsRegistry.NOOP);
+        final RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setMaxAttempts(Math.max(0, maxRetries) + 1);
+        client.setResilience(retryPolicy, CIRCUIT_BREAKER);
+        client.setLockWait(new LockWaitPolicy(TimeUnit.SECONDS.toMillis(Math.max(0, lockWaitSeconds))));
+        return client;
+    }
+
+    void printTimings() {
+        if (timings) {
+            MergeListenerLogger.printTimings(metrics);
+        }
     }
 
     protected File getLocalWorkspaceDirectory() throws IOException {
-        return new File(".").getCanonicalFile();
+        return getWorkingDirectory().getCanonicalFile();
+    }
+
+    protected File getWorkingDirectory() {
+        return isInDaemon() ? DAEMON_WORKING_DIRECTORY.get() : new File(".");
+    }
+
+    protected File resolve(String path) {
+        final File file = new File(path);
+        return file.isAbsolute() ? file : new File(getWorkingDirectory(), path);
     }
 }
@@ -4,7 +4,6 @@ import org.mule.api.vcs.client.ApiVCSClient;
 import org.mule.api.vcs.client.BranchInfo;
 import org.mule.api.vcs.client.ValueResult;
 import org.mule.api.vcs.client.service.UserInfoProvider;
-import org.mule.api.vcs.client.service.impl.ApiRepositoryFileManager;
 import org.mule.apidesigner.resource.projects.model.ProjectsGETHeader;
 import org.mule.apidesigner.responses.ApiDesignerXapiResponse;
 import picocli.CommandLine.Command;
@@ -36,7 +35,7 @@ public class CloneCommand extends BaseAuthorizedCommand implements Callable<Inte
         final UserInfoProvider accessTokenProvider = getAccessTokenProvider();
 
         String projectId = null;
-        final ApiDesignerXapiResponse<List<org.mule.apidesigner.resource.projects.model.Project>> xapiResponse = ApiClientFactory.apiDesigner().projects.get(new ProjectsGETHeader(getAccessTokenProvider().getOrgId(), getAccessTokenProvider().getUserId()), getAccessTokenProvider().getAccessToken());
+        final ApiDesignerXapiResponse<List<org.mule.apidesigner.resource.projects.model.Project>> xapiResponse = ApiClientFactory.apiDesigner().projects.get(new ProjectsGETHeader(accessTokenProvider.getOrgId(), accessTokenProvider.getUserId()), accessTokenProvider.getAccessToken());
         final List<org.mule.apidesigner.resource.projects.model.Project> body = xapiResponse.getBody();
         for (org.mule.apidesigner.resource.projects.model.Project project : body) {
             if (project.getName().equals(projectName)) {
@@ -56,7 +55,7 @@ public class CloneCommand extends BaseAuthorizedCommand implements Callable<Inte
             return -1;
         }
 
-        final File workingDirectory = new File(folderName);
+        final File workingDirectory = resolve(folderName);
         if (workingDirectory.exists()) {
             System.err.println("[Error] Target directory already exists.");
             return -1;
@@ -68,7 +67,7 @@ public class CloneCommand extends BaseAuthorizedCommand implements Callable<Inte
             return -1;
         }
 
-        final ApiVCSClient apiVCSClient = new ApiVCSClient(workingDirectory, new ApiRepositoryFileManager());
+        final ApiVCSClient apiVCSClient = configure(new ApiVCSClient(workingDirectory, createFileManager()));
         System.out.println("Start clone for project: " + projectName);
         final ValueResult master = apiVCSClient.clone(accessTokenProvider, new BranchInfo(projectId, Optional.ofNullable(branch).orElse("master"), accessTokenProvider.getOrgId()));
         if (master.isFailure()) {
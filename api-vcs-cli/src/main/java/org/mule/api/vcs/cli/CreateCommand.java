@@ -3,12 +3,10 @@ package org.mule.api.vcs.cli;
 import org.mule.api.vcs.client.ApiVCSClient;
 import org.mule.api.vcs.client.ValueResult;
 import org.mule.api.vcs.client.service.ApiType;
-import org.mule.api.vcs.client.service.impl.ApiRepositoryFileManager;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Parameters;
 
-import java.io.File;
 import java.util.concurrent.Callable;
 
 import static picocli.CommandLine.Option;
@@ -31,7 +29,7 @@ public class CreateCommand extends BaseAuthorizedCommand implements Callable<Int
     public Integer call() throws Exception {
         System.out.println();
         System.out.println("Start creating project `" + name + "`");
-        final ApiVCSClient apiVCSClient = new ApiVCSClient(new File(name), new ApiRepositoryFileManager());
+        final ApiVCSClient apiVCSClient = configure(new ApiVCSClient(resolve(name), createFileManager()));
         final ValueResult master = apiVCSClient.create(getAccessTokenProvider(), new MergeListenerLogger(), apiType, name, description);
         if (master.isFailure()) {
             if (master.getMessage().isPresent())
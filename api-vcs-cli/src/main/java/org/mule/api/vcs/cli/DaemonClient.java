@@ -0,0 +1,111 @@
+package org.mule.api.vcs.cli;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Optional;
+
+//Hands a command to a running daemon, the caller runs it in process when no daemon takes it
+public class DaemonClient {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 500;
+
+    private final File daemonFile;
+
+    public DaemonClient(File daemonFile) {
+        this.daemonFile = daemonFile;
+    }
+
+    public static DaemonClient inUserHome() {
+        return new DaemonClient(DaemonEndpoint.fileInUserHome());
+    }
+
+    //Empty when the command was not accepted by a daemon
+    public Optional<Integer> execute(File workingDirectory, String[] args) {
+        return execute(workingDirectory, args, System.getenv(), ApiVCSDaemon.sharedProperties(System.getProperties()), System.out, System.err);
+    }
+
+    //The command runs with the caller's `environment`, a daemon started with other `properties` declines it
+    public Optional<Integer> execute(File workingDirectory, String[] args, Map<String, String> environment, Map<String, String> properties, PrintStream stdout, PrintStream stderr) {
+        final Optional<DaemonEndpoint> endpoint = DaemonEndpoint.load(daemonFile);
+        if (!endpoint.isPresent()) {
+            return Optional.empty();
+        }
+        boolean accepted = false;
+        try (Socket socket = connect(endpoint.get())) {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out.writeUTF(endpoint.get().getToken());
+            out.writeInt(ApiVCSDaemon.EXECUTE);
+            out.writeUTF(workingDirectory.getCanonicalPath());
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            ApiVCSDaemon.writeMap(out, environment);
+            ApiVCSDaemon.writeMap(out, properties);
+            out.flush();
+            if (in.readByte() != ApiVCSDaemon.ACCEPTED) {
+                return Optional.empty();
+            }
+            accepted = true;
+            return Optional.of(relay(in, stdout, stderr));
+        } catch (IOException e) {
+            if (!accepted) {
+                //Stale endpoint or a daemon from another session
+                return Optional.empty();
+            }
+            //The command may be half done, running it again is not safe
+            stderr.println("[Error] Lost connection with the apivcs daemon: " + e.getMessage());
+            return Optional.of(-1);
+        }
+    }
+
+    public boolean stop() {
+        final Optional<DaemonEndpoint> endpoint = DaemonEndpoint.load(daemonFile);
+        if (!endpoint.isPresent()) {
+            return false;
+        }
+        try (Socket socket = connect(endpoint.get())) {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(endpoint.get().getToken());
+            out.writeInt(ApiVCSDaemon.STOP);
+            out.flush();
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            return in.readByte() == ApiVCSDaemon.EXIT;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Socket connect(DaemonEndpoint endpoint) throws IOException {
+        final Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), endpoint.getPort()), CONNECT_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return socket;
+    }
+
+    private static int relay(DataInputStream in, PrintStream stdout, PrintStream stderr) throws IOException {
+        while (true) {
+            final byte stream = in.readByte();
+            if (stream == ApiVCSDaemon.EXIT) {
+                stdout.flush();
+                stderr.flush();
+                return in.readInt();
+            }
+            final byte[] chunk = new byte[in.readInt()];
+            in.readFully(chunk);
+            if (stream == ApiVCSDaemon.ERR) {
+                stderr.write(chunk, 0, chunk.length);
+            } else {
+                stdout.write(chunk, 0, chunk.length);
+            }
+        }
+    }
+}
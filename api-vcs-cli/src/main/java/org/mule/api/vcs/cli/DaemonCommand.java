@@ -0,0 +1,33 @@
+package org.mule.api.vcs.cli;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+@Command(description = "Runs a background daemon that executes the following commands with warm clients and sessions",
+        name = "daemon", mixinStandardHelpOptions = true, version = "checksum 0.1")
+public class DaemonCommand implements Callable<Integer> {
+
+    @Option(names = {"--stop"}, description = "Stops the running daemon.")
+    boolean stop;
+
+    @Option(names = {"--idle-timeout"}, description = "Minutes without commands before the daemon stops by itself.")
+    long idleTimeoutMinutes = TimeUnit.MILLISECONDS.toMinutes(ApiVCSDaemon.DEFAULT_IDLE_TIMEOUT_MILLIS);
+
+    @Override
+    public Integer call() throws Exception {
+        if (stop) {
+            if (DaemonClient.inUserHome().stop()) {
+                System.out.println("Daemon stopped.");
+                return 1;
+            } else {
+                System.err.println("[Error] No daemon is running.");
+                return -1;
+            }
+        }
+        new ApiVCSDaemon(DaemonEndpoint.fileInUserHome(), TimeUnit.MINUTES.toMillis(idleTimeoutMinutes)).run();
+        return 1;
+    }
+}
@@ -0,0 +1,68 @@
+package org.mule.api.vcs.cli;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Properties;
+
+//Where a running daemon listens and the secret a client must present, kept in ~/.apivcs/daemon.properties
+public class DaemonEndpoint {
+
+    public static final String DAEMON_FILE_NAME = "daemon.properties";
+
+    private static final String PORT_KEY = "port";
+    private static final String TOKEN_KEY = "token";
+
+    private final int port;
+    private final String token;
+
+    public DaemonEndpoint(int port, String token) {
+        this.port = port;
+        this.token = token;
+    }
+
+    public static File fileInUserHome() {
+        final File apiVCSDirectory = new File(System.getProperty("user.home"), ApiVCSClient.APIVCS_FOLDER_NAME);
+        return new File(apiVCSDirectory, DAEMON_FILE_NAME);
+    }
+
+    public static DaemonEndpoint withNewToken(int port) {
+        final byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return new DaemonEndpoint(port, Base64.getUrlEncoder().withoutPadding().encodeToString(secret));
+    }
+
+    public static Optional<DaemonEndpoint> load(File daemonFile) {
+        return PrivateFiles.readProperties(daemonFile).flatMap((properties) -> {
+            final String port = properties.getProperty(PORT_KEY);
+            final String token = properties.getProperty(TOKEN_KEY);
+            if (port == null || token == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new DaemonEndpoint(Integer.parseInt(port), token));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    public void store(File daemonFile) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(PORT_KEY, String.valueOf(port));
+        properties.setProperty(TOKEN_KEY, token);
+        PrivateFiles.writeProperties(daemonFile, properties, "apivcs daemon, do not share");
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getToken() {
+        return token;
+    }
+}
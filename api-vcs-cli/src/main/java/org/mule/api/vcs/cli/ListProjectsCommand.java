@@ -3,7 +3,6 @@ package org.mule.api.vcs.cli;
 import org.apache.commons.lang.StringUtils;
 import org.mule.api.vcs.client.ApiVCSClient;
 import org.mule.api.vcs.client.service.ProjectInfo;
-import org.mule.api.vcs.client.service.impl.ApiRepositoryFileManager;
 import picocli.CommandLine.Command;
 
 import java.io.File;
@@ -17,8 +16,8 @@ public class ListProjectsCommand extends BaseAuthorizedCommand implements Callab
 
     @Override
     public Integer call() throws Exception {
-        final File workingDirectory = new File(".");
-        final ApiVCSClient apiVCSClient = new ApiVCSClient(workingDirectory, new ApiRepositoryFileManager());
+        final File workingDirectory = getWorkingDirectory();
+        final ApiVCSClient apiVCSClient = new ApiVCSClient(workingDirectory, createFileManager());
         final List<ProjectInfo> master = apiVCSClient.list(getAccessTokenProvider());
         final Integer idLength = master.stream().map(p -> p.getProjectId().length()).max(Integer::compareTo).orElse(0);
         final Integer nameLength = master.stream().map(p -> p.getProjectName().length()).max(Integer::compareTo).orElse(0);
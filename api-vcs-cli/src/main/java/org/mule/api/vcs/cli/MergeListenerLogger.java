@@ -3,6 +3,8 @@ package org.mule.api.vcs.cli;
 import org.mule.api.vcs.client.DefaultMergeListener;
 import org.mule.api.vcs.client.diff.ApplyResult;
 import org.mule.api.vcs.client.diff.Diff;
+import org.mule.api.vcs.client.metrics.InMemoryMetricsRegistry;
+import org.mule.api.vcs.client.metrics.MetricsReport;
 
 import java.util.List;
 
@@ -40,4 +42,15 @@ class MergeListenerLogger extends DefaultMergeListener {
     public void endPushing() {
         System.out.println("Finish pushing");
     }
+
+    @Override
+    public void waitingForLock(String owner, long waitedMillis, long maxWaitMillis) {
+        System.out.println("Branch is locked by " + owner + ", waiting (" + waitedMillis / 1000 + "s of " + maxWaitMillis / 1000 + "s).");
+    }
+
+    static void printTimings(InMemoryMetricsRegistry metrics) {
+        System.out.println();
+        MetricsReport.print(metrics, System.out);
+        System.out.println();
+    }
 }
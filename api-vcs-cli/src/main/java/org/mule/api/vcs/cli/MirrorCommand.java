@@ -0,0 +1,49 @@
+package org.mule.api.vcs.cli;
+
+import org.mule.api.vcs.client.mirror.MirrorEntry;
+import org.mule.api.vcs.client.mirror.MirrorManifest;
+import org.mule.api.vcs.client.mirror.OrgMirror;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+
+import static picocli.CommandLine.Option;
+
+@Command(description = "Keeps a local copy of every branch of every project in the organization up to date",
+        name = "mirror", mixinStandardHelpOptions = true, version = "checksum 0.1")
+public class MirrorCommand extends BaseAuthorizedCommand implements Callable<Integer> {
+
+    @Parameters(description = "Directory holding the mirror.", arity = "1", index = "0")
+    String mirrorDirectory;
+
+    @Option(names = {"--parallelism"}, description = "Projects mirrored at the same time.", showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
+    int parallelism = OrgMirror.DEFAULT_PARALLELISM;
+
+    @Override
+    public Integer call() throws Exception {
+        final File directory = resolve(mirrorDirectory).getCanonicalFile();
+        final OrgMirror mirror = new OrgMirror(createFileManager(), directory, parallelism);
+        mirror.setClientConfigurer(this::configure);
+        System.out.println("Mirroring into " + directory.getAbsolutePath());
+        final MirrorManifest manifest = mirror.mirror(getAccessTokenProvider());
+        for (MirrorEntry entry : manifest.getEntries()) {
+            if (entry.getStatus() == MirrorEntry.Status.FAILED) {
+                System.err.println("[Error] " + entry.getProjectId() + " " + entry.getBranch() + " : " + entry.getMessage().orElse(""));
+            } else if (entry.getStatus() != MirrorEntry.Status.UNCHANGED) {
+                System.out.println("\t" + entry.getStatus().name().toLowerCase() + " " + entry.getProjectId() + " " + entry.getBranch()
+                        + " (+" + entry.getAdded() + " ~" + entry.getModified() + " -" + entry.getDeleted() + ")");
+            }
+        }
+        System.out.println();
+        System.out.println(manifest.getEntries().size() + " branches, "
+                + manifest.getEntries(MirrorEntry.Status.CREATED).size() + " created, "
+                + manifest.getEntries(MirrorEntry.Status.UPDATED).size() + " updated, "
+                + manifest.getEntries(MirrorEntry.Status.FAILED).size() + " failed.");
+        System.out.println("Manifest written to " + manifest.getFile().getAbsolutePath());
+        System.out.println();
+        return manifest.isSuccess() ? 1 : -1;
+    }
+}
@@ -0,0 +1,60 @@
+package org.mule.api.vcs.cli;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+//Properties files under ~/.apivcs that hold secrets and must only be readable by their owner
+class PrivateFiles {
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+
+    static Optional<Properties> readProperties(File file) {
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+            return Optional.of(properties);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    //Writes to a private temporary file first so the secret is never visible with default permissions
+    static void writeProperties(File file, Properties properties, String comment) throws IOException {
+        final File directory = file.getParentFile();
+        directory.mkdirs();
+        final File tmpFile = new File(directory, file.getName() + ".tmp");
+        try {
+            createOwnerOnly(tmpFile.toPath());
+            try (OutputStream out = new FileOutputStream(tmpFile)) {
+                properties.store(out, comment);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmpFile.delete();
+            throw e;
+        }
+    }
+
+    private static void createOwnerOnly(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        } else {
+            final File plainFile = Files.createFile(file).toFile();
+            plainFile.setReadable(false, false);
+            plainFile.setWritable(false, false);
+            plainFile.setReadable(true, true);
+            plainFile.setWritable(true, true);
+        }
+    }
+}
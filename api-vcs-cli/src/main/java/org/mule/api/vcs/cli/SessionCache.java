@@ -0,0 +1,114 @@
+package org.mule.api.vcs.cli;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Properties;
+
+//Keeps the last login under ~/.apivcs so short commands don't need to log in again
+public class SessionCache {
+
+    public static final String SESSION_FILE_NAME = "session.properties";
+    //Platform tokens are not returned with an expiration, assume a conservative lifetime
+    public static final long DEFAULT_TOKEN_TTL_MILLIS = 50 * 60 * 1000;
+    //Tokens this close to expiring are refreshed before being used
+    public static final long REFRESH_MARGIN_MILLIS = 5 * 60 * 1000;
+
+    private static final String USERNAME_KEY = "username";
+    private static final String ACCESS_TOKEN_KEY = "accessToken";
+    private static final String USER_ID_KEY = "userId";
+    private static final String ORG_ID_KEY = "orgId";
+    private static final String EXPIRES_AT_KEY = "expiresAt";
+
+    private final File sessionFile;
+
+    public SessionCache(File sessionFile) {
+        this.sessionFile = sessionFile;
+    }
+
+    public static SessionCache inUserHome() {
+        final File apiVCSDirectory = new File(System.getProperty("user.home"), ApiVCSClient.APIVCS_FOLDER_NAME);
+        return new SessionCache(new File(apiVCSDirectory, SESSION_FILE_NAME));
+    }
+
+    public Optional<Session> load() {
+        return PrivateFiles.readProperties(sessionFile).flatMap((properties) -> {
+            final String username = properties.getProperty(USERNAME_KEY);
+            final String accessToken = properties.getProperty(ACCESS_TOKEN_KEY);
+            final String expiresAt = properties.getProperty(EXPIRES_AT_KEY);
+            if (username == null || accessToken == null || expiresAt == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new Session(username, accessToken, properties.getProperty(USER_ID_KEY), properties.getProperty(ORG_ID_KEY), Long.parseLong(expiresAt)));
+            } catch (NumberFormatException e) {
+                //A broken session just means logging in again
+                return Optional.empty();
+            }
+        });
+    }
+
+    public void store(Session session) {
+        final Properties properties = new Properties();
+        properties.setProperty(USERNAME_KEY, session.getUsername());
+        properties.setProperty(ACCESS_TOKEN_KEY, session.getAccessToken());
+        properties.setProperty(EXPIRES_AT_KEY, String.valueOf(session.getExpiresAt()));
+        session.getUserId().ifPresent((userId) -> properties.setProperty(USER_ID_KEY, userId));
+        session.getOrgId().ifPresent((orgId) -> properties.setProperty(ORG_ID_KEY, orgId));
+        try {
+            PrivateFiles.writeProperties(sessionFile, properties, "apivcs session, do not share");
+        } catch (IOException e) {
+            //Not being able to cache the session only costs a login on the next command
+        }
+    }
+
+    public void clear() {
+        sessionFile.delete();
+    }
+
+    public static class Session {
+        private final String username;
+        private final String accessToken;
+        private final String userId;
+        private final String orgId;
+        private final long expiresAt;
+
+        public Session(String username, String accessToken, String userId, String orgId, long expiresAt) {
+            this.username = username;
+            this.accessToken = accessToken;
+            this.userId = userId;
+            this.orgId = orgId;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public Optional<String> getUserId() {
+            return Optional.ofNullable(userId);
+        }
+
+        public Optional<String> getOrgId() {
+            return Optional.ofNullable(orgId);
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isExpiring(long now) {
+            return now + REFRESH_MARGIN_MILLIS >= expiresAt;
+        }
+
+        public Session withIdentity(String userId, String orgId) {
+            return new Session(username, accessToken, userId, orgId, expiresAt);
+        }
+    }
+}
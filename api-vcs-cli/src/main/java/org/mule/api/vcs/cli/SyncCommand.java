@@ -0,0 +1,81 @@
+package org.mule.api.vcs.cli;
+
+import org.apache.commons.lang.StringUtils;
+import org.mule.api.vcs.client.SyncResult;
+import org.mule.api.vcs.client.WorkspaceSync;
+import org.mule.api.vcs.client.diff.MergingStrategy;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static picocli.CommandLine.Option;
+
+@Command(description = "Pulls or pushes every project found under a directory at the same time",
+        name = "sync", mixinStandardHelpOptions = true, version = "checksum 0.1")
+public class SyncCommand extends BaseAuthorizedCommand implements Callable<Integer> {
+
+    @Parameters(description = "Directory containing the projects, the current one by default.", arity = "0..1", index = "0")
+    String rootDirectory;
+
+    @Option(names = {"--push"}, description = "Pushes the changes of every project instead of pulling.")
+    boolean push;
+
+    @Option(names = {"--merge_strategy"}, description = "Strategy to be used for merging 'KEEP_THEIRS','KEEP_BOTH' or 'KEEP_OURS'", showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
+    MergingStrategy mergingStrategy = MergingStrategy.KEEP_BOTH;
+
+    @Option(names = {"--max-concurrent-requests"}, description = "Requests to API Designer in flight at the same time across all projects.", showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
+    int maxConcurrentRequests = WorkspaceSync.DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+    @Option(names = {"--max-depth"}, description = "How deep under the directory projects are searched.", showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
+    int maxDepth = WorkspaceSync.DEFAULT_MAX_DEPTH;
+
+    @Override
+    public Integer call() throws Exception {
+        final File root = (rootDirectory == null ? getWorkingDirectory() : resolve(rootDirectory)).getCanonicalFile();
+        final WorkspaceSync sync = new WorkspaceSync(createFileManager(), maxConcurrentRequests);
+        sync.setMaxDepth(maxDepth);
+        sync.setClientConfigurer(this::configure);
+        final List<File> workspaces = sync.findWorkspaces(root);
+        if (workspaces.isEmpty()) {
+            System.err.println("[Error] No apivcs projects found under " + root.getAbsolutePath());
+            return -1;
+        }
+        final String operation = push ? "Pushing" : "Pulling";
+        System.out.println(operation + " " + workspaces.size() + " projects under " + root.getAbsolutePath());
+        final long start = System.nanoTime();
+        final List<SyncResult> results = sync.sync(getAccessTokenProvider(), workspaces, push ? WorkspaceSync.Operation.PUSH : WorkspaceSync.Operation.PULL, mergingStrategy);
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        printSummary(root, results);
+        final long failures = results.stream().filter((result) -> !result.isSuccess()).count();
+        System.out.println();
+        System.out.println((results.size() - failures) + " succeeded, " + failures + " failed in " + elapsedMillis + " ms.");
+        System.out.println();
+        return failures == 0 ? 1 : -1;
+    }
+
+    private void printSummary(File root, List<SyncResult> results) {
+        final int projectLength = results.stream().map((result) -> projectName(root, result).length()).max(Integer::compareTo).orElse(0);
+        final int branchLength = results.stream().map((result) -> result.getBranch().orElse("").length()).max(Integer::compareTo).orElse(0);
+        final String header = StringUtils.rightPad(" Project", projectLength) + " | " + StringUtils.rightPad(" Branch", branchLength) + " | " + StringUtils.leftPad("Time", 9) + " | Result";
+        System.out.println();
+        System.out.println(header);
+        System.out.println(StringUtils.repeat("-", header.length()));
+        for (SyncResult result : results) {
+            final String outcome = result.isSuccess() ? "ok" : "failed: " + result.getResult().getMessage().orElse("unknown error").replace('\n', ' ');
+            System.out.println(StringUtils.rightPad(projectName(root, result), projectLength) + " | "
+                    + StringUtils.rightPad(result.getBranch().orElse(""), branchLength) + " | "
+                    + StringUtils.leftPad(TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()) + " ms", 9) + " | "
+                    + outcome);
+        }
+    }
+
+    private static String projectName(File root, SyncResult result) {
+        final String relative = root.toPath().relativize(result.getWorkspace().toPath()).toString();
+        return relative.isEmpty() ? "." : relative;
+    }
+}
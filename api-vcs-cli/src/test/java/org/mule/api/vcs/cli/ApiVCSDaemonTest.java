@@ -0,0 +1,73 @@
+package org.mule.api.vcs.cli;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ApiVCSDaemonTest {
+
+    private File directory;
+    private File daemonFile;
+    private Thread daemon;
+
+    @Before
+    public void startDaemon() throws Exception {
+        directory = Files.createTempDirectory("apivcs-daemon").toFile();
+        daemonFile = new File(directory, DaemonEndpoint.DAEMON_FILE_NAME);
+        daemon = new Thread(() -> {
+            try {
+                new ApiVCSDaemon(daemonFile, 60 * 1000).run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        daemon.start();
+        final long deadline = System.currentTimeMillis() + 10 * 1000;
+        while (!DaemonEndpoint.load(daemonFile).isPresent() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @After
+    public void stopDaemon() throws InterruptedException {
+        new DaemonClient(daemonFile).stop();
+        daemon.join(10 * 1000);
+    }
+
+    @Test
+    public void relaysOutputAndExitCodeOfTheCommand() {
+        final File notAWorkspace = new File(directory, "empty");
+        notAWorkspace.mkdirs();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        final Optional<Integer> exitCode = new DaemonClient(daemonFile).execute(notAWorkspace, new String[]{"status"}, System.getenv(),
+                ApiVCSDaemon.sharedProperties(System.getProperties()), new PrintStream(out, true), new PrintStream(err, true));
+        assertThat(exitCode, is(Optional.of(-1)));
+        assertThat(new String(err.toByteArray(), StandardCharsets.UTF_8), containsString("Not an apivcs directory."));
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is(System.lineSeparator()));
+    }
+
+    @Test
+    public void declinesCommandsOfACallerConfiguredDifferently() {
+        final Map<String, String> properties = ApiVCSDaemon.sharedProperties(System.getProperties());
+        properties.put("user.home", new File(directory, "other-home").getAbsolutePath());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Optional<Integer> exitCode = new DaemonClient(daemonFile).execute(directory, new String[]{"status"}, System.getenv(),
+                properties, new PrintStream(out, true), new PrintStream(out, true));
+        assertThat(exitCode.isPresent(), is(false));
+        assertThat(out.size(), is(0));
+    }
+}
@@ -1,10 +1,16 @@
 package org.mule.api.vcs.client;
 
-import com.github.difflib.DiffUtils;
-import com.github.difflib.algorithm.DiffException;
-import com.github.difflib.patch.Patch;
 import org.mule.api.vcs.client.diff.*;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
 import org.mule.api.vcs.client.service.*;
+import org.mule.api.vcs.client.service.resilience.CircuitBreaker;
+import org.mule.api.vcs.client.service.resilience.CircuitOpenException;
+import org.mule.api.vcs.client.service.resilience.ResilientRepositoryFileManager;
+import org.mule.api.vcs.client.service.resilience.RetryPolicy;
+import org.mule.api.vcs.client.store.FileContentCache;
+import org.mule.api.vcs.client.store.ObjectStore;
+import org.mule.api.vcs.client.store.RemoteSnapshot;
+import org.mule.api.vcs.client.store.Tree;
 import org.mule.maven.exchange.model.ExchangeModel;
 import org.mule.maven.exchange.model.ExchangeModelSerializer;
 
@@ -14,11 +20,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Properties;
+import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static org.mule.api.vcs.client.metrics.ApiVCSMetrics.*;
 import static org.mule.api.vcs.client.service.OrgIdUserInfoProviderDecorator.withOrgId;
 
 public class ApiVCSClient {
@@ -29,11 +35,97 @@ public class ApiVCSClient {
     public static final String ORG_ID_KEY = "orgId";
     private File targetDirectory;
     private RepositoryFileManager fileManager;
+    //The manager as given, `fileManager` may be an instrumented or resilient view of it
+    private RepositoryFileManager remoteFileManager;
+    private RetryPolicy retryPolicy;
+    private CircuitBreaker circuitBreaker;
+    private BranchContentDownloader downloader = new BranchContentDownloader(BranchContentDownloader.DEFAULT_CONCURRENCY);
+    private BranchContentUploader uploader = new BranchContentUploader(BranchContentUploader.DEFAULT_MAX_BATCH_FILES, BranchContentUploader.DEFAULT_MAX_BATCH_BYTES);
+    private WorkspaceDiffEngine diffEngine = new WorkspaceDiffEngine(WorkspaceDiffEngine.DEFAULT_PARALLELISM);
+    private boolean incrementalPull = true;
+    private long contentCacheMaxBytes;
+    private FileContentCache contentCache;
+    private WorkspaceIndex index;
+    private MetricsRegistry metrics = MetricsRegistry.NOOP;
+    private LockLeaseManager leaseManager = new LockLeaseManager(LockLeaseManager.DEFAULT_HEARTBEAT_MILLIS);
+    private LockWaitPolicy lockWait = LockWaitPolicy.noWait();
 
 
     public ApiVCSClient(File targetDirectory, RepositoryFileManager fileManager) {
         this.targetDirectory = targetDirectory;
         this.fileManager = fileManager;
+        this.remoteFileManager = fileManager;
+    }
+
+    public void setDownloadConcurrency(int downloadConcurrency) {
+        this.downloader = new BranchContentDownloader(downloadConcurrency, metrics);
+    }
+
+    public void setPushBatchLimits(int maxBatchFiles, long maxBatchBytes) {
+        this.uploader = new BranchContentUploader(maxBatchFiles, maxBatchBytes, metrics);
+    }
+
+    //Besides the phases of each operation, a registry other than NOOP records every remote endpoint
+    public void setMetricsRegistry(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        updateFileManager();
+        this.downloader = new BranchContentDownloader(downloader.getConcurrency(), metrics);
+        this.uploader = new BranchContentUploader(uploader.getMaxBatchFiles(), uploader.getMaxBatchBytes(), metrics);
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metrics;
+    }
+
+    //Retries transient failures of idempotent remote calls, a null policy disables it
+    public void setResilience(RetryPolicy retryPolicy, CircuitBreaker circuitBreaker) {
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker != null ? circuitBreaker : new CircuitBreaker();
+        updateFileManager();
+    }
+
+    private void updateFileManager() {
+        RepositoryFileManager manager = remoteFileManager;
+        if (metrics != MetricsRegistry.NOOP) {
+            //Instrument below the retries so every attempt is recorded
+            manager = new InstrumentedRepositoryFileManager(manager, metrics);
+        }
+        if (retryPolicy != null) {
+            manager = new ResilientRepositoryFileManager(manager, retryPolicy, circuitBreaker, metrics);
+        }
+        this.fileManager = manager;
+    }
+
+    //How often a held branch lock is renewed, a lock not renewed for three beats is released by the next run
+    public void setLockHeartbeat(long heartbeatMillis) {
+        this.leaseManager = new LockLeaseManager(heartbeatMillis);
+    }
+
+    //Instead of failing right away, operations that find the branch locked poll until the policy gives up
+    public void setLockWait(LockWaitPolicy lockWait) {
+        this.lockWait = lockWait;
+    }
+
+    public void setDiffParallelism(int diffParallelism) {
+        this.diffEngine = new WorkspaceDiffEngine(diffParallelism, diffEngine.getMaxEditDistance());
+    }
+
+    //Files that need more inserted plus deleted lines than this are diffed as a whole replacement, keeping status,
+    //pull and push fast on reordered or regenerated specs. LineDiff.UNBOUNDED always computes the minimal diff
+    public void setDiffMaxEditDistance(int maxEditDistance) {
+        this.diffEngine = new WorkspaceDiffEngine(diffEngine.getParallelism(), maxEditDistance);
+    }
+
+    //When enabled pull only fetches the files whose remote version changed since the last sync
+    public void setIncrementalPull(boolean incrementalPull) {
+        this.incrementalPull = incrementalPull;
+    }
+
+    //Size of the on disk cache of remote file bodies, 0 (the default) disables it. Only worth enabling against a
+    //service that answers not modified, API Designer never does and every body would just be written twice
+    public synchronized void setContentCacheMaxBytes(long contentCacheMaxBytes) {
+        this.contentCacheMaxBytes = contentCacheMaxBytes;
+        this.contentCache = null;
     }
 
     public List<String> branches(UserInfoProvider provider, String projectId) {
@@ -43,17 +135,24 @@ public class ApiVCSClient {
 
 
     public ValueResult<Void> clone(UserInfoProvider provider, BranchInfo config) {
+        return metrics.timer(CLONE).time(() -> unlessRemoteDown(() -> doClone(provider, config)));
+    }
+
+    private ValueResult<Void> doClone(UserInfoProvider provider, BranchInfo config) {
         final ValueResult<Void> valueResult = storeConfig(config.getProjectId(), config.getBranch(), config.getOrgId());
         if (valueResult.isFailure()) {
             return valueResult.asFailure();
         } else {
-            final File branchDirectory = getBranchDirectory(config.getBranch());
-            if (branchDirectory.mkdirs()) {
-                final BranchRepositoryLock apiLock = fileManager.acquireLock(withOrgId(provider, config.getOrgId()), config.getProjectId(), config.getBranch());
-                if (apiLock.isSuccess()) {
-                    return cloneBranchContentTo(apiLock, this.targetDirectory, branchDirectory);
-                } else {
-                    return repositoryAlreadyLocked(apiLock);
+            if (!getObjectStore().hasBranch(config.getBranch())) {
+                final LockLease lease = acquireLease(provider, config, new DefaultMergeListener());
+                try {
+                    if (lease.isAcquired()) {
+                        return cloneBranchContentTo(lease.getLock(), config.getBranch(), RemoteSnapshot.EMPTY, this.targetDirectory).flatMap((tree) -> updateBranch(config.getBranch(), tree));
+                    } else {
+                        return repositoryAlreadyLocked(lease.getLock());
+                    }
+                } finally {
+                    releaseLease(lease);
                 }
             } else {
                 return ValueResult.fail("Unable to initialize apivcs as it was already initialized. Clean .apivcs directory before clone.");
@@ -78,6 +177,10 @@ public class ApiVCSClient {
     }
 
     public ValueResult<Void> publish(UserInfoProvider provider, MergingStrategy mergingStrategy, MergeListener listener) {
+        return metrics.timer(PUBLISH).time(() -> unlessRemoteDown(() -> doPublish(provider, mergingStrategy, listener)));
+    }
+
+    private ValueResult<Void> doPublish(UserInfoProvider provider, MergingStrategy mergingStrategy, MergeListener listener) {
         final File exchangeJsonFile = new File(targetDirectory, "exchange.json");
         if (!exchangeJsonFile.exists()) {
             return ValueResult.fail("exchange.json file is not present");
@@ -87,12 +190,14 @@ public class ApiVCSClient {
             return mayBeBranchInfo.asFailure();
         } else {
             BranchInfo branchInfo = mayBeBranchInfo.getValue().get();
-            final String branchName = branchInfo.getBranch();
+            final LockLease lease = acquireLease(provider, branchInfo, listener);
             try {
-                final BranchRepositoryLock acquireLock = fileManager.acquireLock(withOrgId(provider, branchInfo.getOrgId()), branchInfo.getProjectId(), branchName);
-                if (acquireLock.isSuccess()) {
-                    final ValueResult<Void> voidValueResult = pull(acquireLock, branchInfo, mergingStrategy, listener);
+                if (lease.isAcquired()) {
+                    final ValueResult<Void> voidValueResult = pull(lease.getLock(), branchInfo, mergingStrategy, listener);
                     if (voidValueResult.isSuccess()) {
+                        if (lease.isLost()) {
+                            return lockLost(branchInfo);
+                        }
                         //apply patches
                         try {
                             final ExchangeModel exchangeModel = new ExchangeModelSerializer().read(exchangeJsonFile);
@@ -106,7 +211,10 @@ public class ApiVCSClient {
                                     exchangeModel.getGroupId(),
                                     exchangeModel.getClassifier(),
                                     branchInfo);
-                            fileManager.publish(withOrgId(provider, branchInfo.getOrgId()), publishInfo);
+                            metrics.timer(PUBLISH_ASSET).time(() -> {
+                                fileManager.publish(withOrgId(provider, branchInfo.getOrgId()), publishInfo);
+                                return null;
+                            });
                             return ValueResult.SUCCESS;
                         } catch (IOException e) {
                             return ValueResult.fail(" Unable to parse `exchange.json` : " + e.getMessage());
@@ -118,43 +226,68 @@ public class ApiVCSClient {
                     }
 
                 } else {
-                    return repositoryAlreadyLocked(acquireLock);
+                    return repositoryAlreadyLocked(lease.getLock());
                 }
             } finally {
-                fileManager.releaseLock(withOrgId(provider, branchInfo.getOrgId()), branchInfo.getProjectId(), branchName);
+                releaseLease(lease);
             }
         }
     }
 
     public ValueResult<Void> push(UserInfoProvider provider, MergingStrategy mergingStrategy, MergeListener listener) {
+        return metrics.timer(PUSH).time(() -> unlessRemoteDown(() -> doPush(provider, mergingStrategy, listener)));
+    }
+
+    //An open circuit is the expected outcome of calling a service that is down, not a failure of this client
+    private static ValueResult<Void> unlessRemoteDown(Supplier<ValueResult<Void>> operation) {
+        try {
+            return operation.get();
+        } catch (CircuitOpenException e) {
+            return ValueResult.fail(e.getMessage());
+        }
+    }
+
+    private ValueResult<Void> doPush(UserInfoProvider provider, MergingStrategy mergingStrategy, MergeListener listener) {
         final ValueResult<BranchInfo> mayBeBranchInfo = loadConfig();
         if (mayBeBranchInfo.isFailure()) {
             return mayBeBranchInfo.asFailure();
         } else {
             BranchInfo branchInfo = mayBeBranchInfo.getValue().get();
             final String branchName = branchInfo.getBranch();
+            final LockLease lease = acquireLease(provider, branchInfo, listener);
             try {
-                final BranchRepositoryLock acquireLock = fileManager.acquireLock(withOrgId(provider, branchInfo.getOrgId()), branchInfo.getProjectId(), branchName);
-                if (acquireLock.isSuccess()) {
+                if (lease.isAcquired()) {
+                    final BranchRepositoryLock acquireLock = lease.getLock();
                     //Calculate patch
                     final List<Diff> diffs = calculateDiff(branchInfo);
                     //pull
                     if (!diffs.isEmpty()) {
                         //pull
+                        final List<String> binaryPaths = unsupportedBinaryPaths(acquireLock.getBranchRepositoryManager(), diffs);
                         if (containsConflict(diffs)) {
                             return ValueResult.fail("Resolve conflicts before pushing.");
+                        } else if (!binaryPaths.isEmpty()) {
+                            return ValueResult.fail("The remote can only save text files, revert or remove " + String.join(", ", binaryPaths) + " before pushing.");
                         } else {
                             final ValueResult<Void> voidValueResult = pull(acquireLock, branchInfo, mergingStrategy, listener);
                             if (voidValueResult.isSuccess()) {
+                                if (lease.isLost()) {
+                                    return lockLost(branchInfo);
+                                }
                                 //apply patches
                                 final List<Diff> newDiffs = calculateDiff(branchInfo);
                                 listener.startPushing(newDiffs);
-                                for (Diff newDiff : newDiffs) {
-                                    newDiff.push(acquireLock.getBranchRepositoryManager(), targetDirectory);
-                                    listener.pushing(newDiff);
+                                final List<Diff> pushed = new ArrayList<>();
+                                final ValueResult<Void> pushResult;
+                                final ValueResult<Void> recorded;
+                                try {
+                                    pushResult = metrics.timer(UPLOAD).time(() -> uploader.upload(acquireLock.getBranchRepositoryManager(), newDiffs, targetDirectory, listener, pushed));
+                                } finally {
+                                    listener.endPushing();
+                                    //Also when the push stopped half way, so what reached the remote is not pushed again as a local change
+                                    recorded = recordPushed(branchName, pushed);
                                 }
-                                applyDiffsOn(diffs, mergingStrategy, new DefaultMergeListener(), getBranchDirectory(branchName));
-                                return ValueResult.SUCCESS;
+                                return pushResult.isFailure() ? pushResult : recorded;
                             } else {
                                 return voidValueResult;
                             }
@@ -164,17 +297,53 @@ public class ApiVCSClient {
                         return ValueResult.SUCCESS;
                     }
                 } else {
-                    return repositoryAlreadyLocked(acquireLock);
+                    return repositoryAlreadyLocked(lease.getLock());
                 }
             } finally {
-                fileManager.releaseLock(withOrgId(provider, branchInfo.getOrgId()), branchInfo.getProjectId(), branchName);
+                releaseLease(lease);
+            }
+        }
+    }
+
+    private ValueResult<Void> recordPushed(String branch, List<Diff> pushed) {
+        try {
+            final ObjectStore store = getObjectStore();
+            Tree tree = branchTree(branch);
+            for (Diff diff : pushed) {
+                if (diff instanceof FileContentChange) {
+                    tree = tree.with(diff.getRelativePath(), store.put(((FileContentChange) diff).toFileUpdate(targetDirectory).getContent()));
+                } else if (diff instanceof DeleteFileDiff) {
+                    tree = tree.without(diff.getRelativePath());
+                }
+            }
+            store.updateBranch(branch, tree);
+            return ValueResult.SUCCESS;
+        } catch (IOException e) {
+            return ValueResult.fail("Changes were pushed but the local copy of `" + branch + "` could not be updated : " + e.getMessage());
+        }
+    }
+
+    //Checked before anything is uploaded, so a push is never left half done by a file the remote can not take
+    private List<String> unsupportedBinaryPaths(BranchRepositoryManager branch, List<Diff> diffs) {
+        final List<String> paths = new ArrayList<>();
+        if (branch.supportsBinaryContent()) {
+            return paths;
+        }
+        for (Diff diff : diffs) {
+            try {
+                if (diff instanceof FileContentChange && FileUtils.isBinary(new File(targetDirectory, diff.getRelativePath()))) {
+                    paths.add(diff.getRelativePath());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
         }
+        return paths;
     }
 
     private boolean containsConflict(List<Diff> diffs) {
         return diffs.stream() //
-                .anyMatch((diff) -> diff instanceof NewFileConflictDiff || diff instanceof MergeConflictDiff);
+                .anyMatch((diff) -> diff instanceof Conflict);
     }
 
 
@@ -182,21 +351,73 @@ public class ApiVCSClient {
         return ValueResult.fail("Repository is locked by " + acquireLock.getOwner());
     }
 
+    private ValueResult<Void> lockLost(BranchInfo branchInfo) {
+        return ValueResult.fail("Lock on branch `" + branchInfo.getBranch() + "` was lost while pulling, nothing was pushed. Try again.");
+    }
+
+    //Locks left behind by a run that was killed are released before taking a new one
+    private LockLease acquireLease(UserInfoProvider provider, BranchInfo branchInfo, MergeListener listener) {
+        final int staleReleased = leaseManager.releaseStaleLeases(fileManager, provider, getApiVCSDirectory());
+        metrics.counter(STALE_LOCKS_RELEASED).increment(staleReleased);
+        LockLease lease = tryAcquireLease(provider, branchInfo);
+        if (lease.isAcquired()) {
+            return lease;
+        }
+        metrics.counter(LOCK_CONTENDED).increment();
+        final long start = System.nanoTime();
+        while (!lease.isAcquired()) {
+            final long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+            final long remainingMillis = lockWait.getMaxWaitMillis() - waitedMillis;
+            if (remainingMillis <= 0) {
+                metrics.counter(LOCK_WAIT_TIMEOUTS).increment();
+                break;
+            }
+            listener.waitingForLock(lease.getLock().getOwner(), waitedMillis, lockWait.getMaxWaitMillis());
+            try {
+                Thread.sleep(Math.min(remainingMillis, lockWait.pollMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            metrics.counter(LOCK_POLLS).increment();
+            lease = tryAcquireLease(provider, branchInfo);
+        }
+        metrics.timer(LOCK_WAIT).recordNanos(System.nanoTime() - start);
+        return lease;
+    }
+
+    private LockLease tryAcquireLease(UserInfoProvider provider, BranchInfo branchInfo) {
+        return metrics.timer(ACQUIRE_LOCK).time(() -> leaseManager.acquire(fileManager, provider, branchInfo, getApiVCSDirectory()));
+    }
+
+    private void releaseLease(LockLease lease) {
+        if (lease.isAcquired()) {
+            metrics.timer(RELEASE_LOCK).time(() -> {
+                lease.release();
+                return null;
+            });
+        }
+    }
+
     public synchronized ValueResult<Void> pull(UserInfoProvider provider, MergingStrategy mergingStrategy, MergeListener listener) {
+        return metrics.timer(PULL).time(() -> unlessRemoteDown(() -> doPull(provider, mergingStrategy, listener)));
+    }
+
+    private ValueResult<Void> doPull(UserInfoProvider provider, MergingStrategy mergingStrategy, MergeListener listener) {
         final ValueResult<BranchInfo> mayBeBranchInfo = loadConfig();
         if (mayBeBranchInfo.isFailure()) {
             return mayBeBranchInfo.asFailure();
         } else {
             final BranchInfo config = mayBeBranchInfo.getValue().get();
-            final BranchRepositoryLock apiLock = fileManager.acquireLock(withOrgId(provider, config.getOrgId()), config.getProjectId(), config.getBranch());
-            if (apiLock.isSuccess()) {
+            final LockLease lease = acquireLease(provider, config, listener);
+            if (lease.isAcquired()) {
                 try {
-                    return pull(apiLock, config, mergingStrategy, listener);
+                    return pull(lease.getLock(), config, mergingStrategy, listener);
                 } finally {
-                    fileManager.releaseLock(withOrgId(provider, config.getOrgId()), config.getProjectId(), config.getBranch());
+                    releaseLease(lease);
                 }
             } else {
-                return repositoryAlreadyLocked(apiLock);
+                return repositoryAlreadyLocked(lease.getLock());
             }
         }
     }
@@ -207,35 +428,23 @@ public class ApiVCSClient {
             return ValueResult.fail("Resolve conflicts before trying to pull.");
         }
 
-        final File staging = getStagingDirectory();
-        try {
-            final ValueResult<Void> voidValueResult = cloneBranchContentTo(apiLock, staging);
-            return voidValueResult.flatMap((success) -> {
-                final File branchDirectory = getBranchDirectory(config.getBranch());
-                final List<Diff> diffs = calculateDiff(staging, branchDirectory);
-                final List<ApplyResult> applyResults = applyDiffsOn(diffs, mergingStrategy, listener, targetDirectory);
-                applyDiffsOn(diffs, mergingStrategy, new DefaultMergeListener(), branchDirectory);
-                final boolean failure = applyResults.stream().anyMatch((a) -> !a.isSuccess());
-                if (failure) {
-                    final String errorMessage = applyResults.stream().filter(a -> !a.isSuccess()).map(a -> a.getMessage().get()).reduce((l, r) -> l + "\n" + r).orElse("");
-                    return ValueResult.fail(errorMessage);
-                } else {
-                    return ValueResult.SUCCESS;
-                }
-            });
-        } finally {
-            deleteDirectory(staging);
-        }
-    }
-
-    private File getStagingDirectory() {
-        final File stagingDirectory = new File(getApiVCSDirectory(), "tmp" + File.separator + "staging");
-        if (stagingDirectory.exists()) {
-            //Make sure is clean
-            deleteDirectory(stagingDirectory);
-        }
-        stagingDirectory.mkdirs();
-        return stagingDirectory;
+        final RemoteSnapshot known = incrementalPull ? getObjectStore().remoteSnapshot(config.getBranch()) : RemoteSnapshot.EMPTY;
+        final ValueResult<Tree> remoteTree = cloneBranchContentTo(apiLock, config.getBranch(), known);
+        return remoteTree.flatMap((remote) -> {
+            final List<Diff> diffs = metrics.timer(BRANCH_DIFF).time(() -> diffEngine.diff(branchTree(config.getBranch()), remote, getObjectStore(), metrics));
+            final List<ApplyResult> applyResults = metrics.timer(APPLY).time(() -> applyDiffsOn(diffs, mergingStrategy, listener, targetDirectory));
+            final ValueResult<Void> updateResult = updateBranch(config.getBranch(), remote);
+            if (updateResult.isFailure()) {
+                return updateResult;
+            }
+            final boolean failure = applyResults.stream().anyMatch((a) -> !a.isSuccess());
+            if (failure) {
+                final String errorMessage = applyResults.stream().filter(a -> !a.isSuccess()).map(a -> a.getMessage().get()).reduce((l, r) -> l + "\n" + r).orElse("");
+                return ValueResult.fail(errorMessage);
+            } else {
+                return ValueResult.SUCCESS;
+            }
+        });
     }
 
     private List<ApplyResult> applyDiffsOn(List<Diff> diffs, MergingStrategy mergingStrategy, MergeListener listener, File targetDirectory) {
@@ -243,6 +452,7 @@ public class ApiVCSClient {
         //Apply changes to both the branch and the working directory
         final List<ApplyResult> result = diffs.stream().map((diff) -> {
             final ApplyResult apply = diff.apply(targetDirectory, mergingStrategy);
+            metrics.counter(apply.isSuccess() ? FILES_APPLIED : FILES_CONFLICTED).increment();
             listener.applied(diff, apply);
             return apply;
         }).collect(Collectors.toList());
@@ -262,48 +472,87 @@ public class ApiVCSClient {
     }
 
     private List<Diff> calculateDiff(BranchInfo branchInfo) {
-        final String branchName = branchInfo.getBranch();
-        final File branchDirectory = getBranchDirectory(branchName);
-        return calculateDiff(targetDirectory, branchDirectory);
+        final Tree branchTree = branchTree(branchInfo.getBranch());
+        final WorkspaceIndex index = getIndex();
+        final List<Diff> diffs = metrics.timer(WORKSPACE_DIFF).time(() -> diffEngine.diff(targetDirectory, branchTree, getObjectStore(), index, metrics));
+        index.save();
+        return diffs;
+    }
+
+    //A long lived client keeps the index in memory until another process rewrites it
+    private synchronized WorkspaceIndex getIndex() {
+        if (index == null || !index.isCurrent()) {
+            index = WorkspaceIndex.load(getApiVCSDirectory());
+        }
+        return index;
     }
 
     public List<ProjectInfo> list(UserInfoProvider provider) {
         return fileManager.projects(provider);
     }
 
-    private void deleteDirectory(File branchDirectory) {
-        deleteDirectory(branchDirectory, pathname -> true);
+    private ValueResult<Tree> cloneBranchContentTo(BranchRepositoryLock apiLock, String branch, RemoteSnapshot known, File... targetDirectory) {
+        final BranchRepositoryManager branchRepositoryManager = withContentCache(apiLock.getBranchRepositoryManager(), branch);
+        final List<ApiFile> apiFiles = metrics.timer(LIST_FILES).time(() -> branchRepositoryManager.listFiles()).stream()
+                //Filter exchange_modules
+                .filter((file) -> !file.getPath().startsWith("exchange_modules/"))
+                .collect(Collectors.toList());
+        metrics.counter(FILES_LISTED).increment(apiFiles.size());
+        final ValueResult<Tree> remoteTree = metrics.timer(FETCH_CONTENT).time(() -> downloader.download(branchRepositoryManager, apiFiles, getObjectStore(), known, targetDirectory));
+        remoteTree.getValue().ifPresent((tree) -> updateRemoteSnapshot(branch, apiFiles, tree));
+        return remoteTree;
+    }
+
+    private void updateRemoteSnapshot(String branch, List<ApiFile> apiFiles, Tree tree) {
+        final RemoteSnapshot.Builder snapshot = RemoteSnapshot.builder();
+        for (ApiFile apiFile : apiFiles) {
+            final Optional<String> hash = tree.get(Tree.normalize(apiFile.getPath()));
+            if (apiFile.getVersion().isPresent() && hash.isPresent()) {
+                snapshot.put(apiFile.getPath(), apiFile.getVersion().get(), hash.get());
+            }
+        }
+        try {
+            getObjectStore().updateRemoteSnapshot(branch, snapshot.build());
+        } catch (IOException e) {
+            //The snapshot only saves downloads, next pull will fetch everything again
+        }
     }
 
-    private ValueResult<Void> cloneBranchContentTo(BranchRepositoryLock apiLock, File... targetDirectory) {
-        final List<ApiFile> apiFiles = apiLock.getBranchRepositoryManager().listFiles();
+    private BranchRepositoryManager withContentCache(BranchRepositoryManager branchRepositoryManager, String branch) {
+        final FileContentCache cache = getContentCache();
+        if (cache == null) {
+            return branchRepositoryManager;
+        } else {
+            return new CachingBranchRepositoryManager(branchRepositoryManager, cache, branch);
+        }
+    }
 
-        for (ApiFile file : apiFiles) {
-            try {
-                //Filter exchange_modules
-                if (!file.getPath().startsWith("exchange_modules/")) {
-                    ApiFileContent fileGetResponse = apiLock.getBranchRepositoryManager().fileContent(file.getPath());
-                    for (File directory : targetDirectory) {
-                        File targetFile = new File(directory, file.getPath());
-                        //Make sure container folder exists
-                        if (!targetFile.getParentFile().exists())
-                            targetFile.getParentFile().mkdirs();
-                        try (FileOutputStream writer = new FileOutputStream(targetFile)) {
-                            writer.write(fileGetResponse.getContent());
-                        }
-                    }
+    protected synchronized FileContentCache getContentCache() {
+        if (contentCache == null && contentCacheMaxBytes > 0) {
+            contentCache = new FileContentCache(new File(getApiVCSDirectory(), FileContentCache.CACHE_FOLDER_NAME), contentCacheMaxBytes);
+        }
+        return contentCache;
+    }
 
-                }
-            } catch (IOException e) {
-                return ValueResult.fail("Problem while trying to write file " + file.getPath() + ".");
-            }
+    protected ObjectStore getObjectStore() {
+        return new ObjectStore(getApiVCSDirectory());
+    }
+
+    private Tree branchTree(String branch) {
+        try {
+            return getObjectStore().branchTree(branch).orElse(Tree.EMPTY);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-        return ValueResult.SUCCESS;
     }
 
-    protected File getBranchDirectory(String branch) {
-        final File branches = new File(getApiVCSDirectory(), "branches");
-        return new File(branches, branch);
+    private ValueResult<Void> updateBranch(String branch, Tree tree) {
+        try {
+            getObjectStore().updateBranch(branch, tree);
+            return ValueResult.SUCCESS;
+        } catch (IOException e) {
+            return ValueResult.fail("Unable to store branch `" + branch + "` at : " + getApiVCSDirectory().getAbsolutePath() + ". Verify the user has the right access.");
+        }
     }
 
     protected File getApiVCSDirectory() {
@@ -356,127 +605,6 @@ public class ApiVCSClient {
     }
 
 
-    private List<Diff> calculateDiff(File modified, File original) {
-        return calculateDiff(modified, original, ".");
-    }
-
-    private List<Diff> calculateDiff(File revised, File original, String relativePath) {
-        final ArrayList<Diff> diffs = new ArrayList<>();
-        if (isIgnore(revised)) {
-            return diffs;
-        }
-        try {
-            if (revised.isDirectory() && original.isDirectory()) {
-                final File[] sourceChildren = revised.listFiles();
-                if (sourceChildren != null) {
-                    for (File sourceChild : sourceChildren) {
-                        diffs.addAll(calculateDiff(sourceChild, new File(original, sourceChild.getName()), relativePath + File.separator + sourceChild.getName()));
-                    }
-                }
-                final File[] targetChildren = original.listFiles();
-                if (targetChildren != null) {
-                    for (File targetChild : targetChildren) {
-                        final File sourceChild = new File(revised, targetChild.getName());
-                        if (!sourceChild.exists()) {
-                            if (targetChild.isDirectory()) {
-                                addDeletedDiffs(targetChild.toPath(), relativePath, diffs);
-                            } else {
-                                final String deletedFilePath = relativePath + File.separator + targetChild.getName();
-                                diffs.add(new DeleteFileDiff(deletedFilePath, Files.readAllLines(targetChild.toPath(), BranchInfo.DEFAULT_CHARSET)));
-                            }
-                        }
-                    }
-                }
-            } else {
-                final Path sourcePath = revised.toPath();
-                final Path targetPath = original.toPath();
-                if (revised.isDirectory()) {
-                    if (original.isFile()) {
-                        diffs.add(new DeleteFileDiff(relativePath, Files.readAllLines(original.toPath(), BranchInfo.DEFAULT_CHARSET)));
-                    }
-
-                    Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
-
-                        @Override
-                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                            if (attrs.isRegularFile()) {
-                                final String newRelativePath = relativePath + File.separator + sourcePath.relativize(file).toString();
-                                final byte[] content = Files.readAllBytes(file);
-                                diffs.add(new NewFileDiff(content, newRelativePath));
-                            }
-                            return FileVisitResult.CONTINUE;
-                        }
-                    });
-
-                } else if (original.isDirectory()) {
-                    if (revised.isFile()) {
-                        final byte[] content = Files.readAllBytes(sourcePath);
-                        diffs.add(new NewFileDiff(content, relativePath));
-                    }
-                    addDeletedDiffs(targetPath, relativePath, diffs);
-                } else if (revised.isFile()) {
-
-                    final File theirsFile = new File(revised.getPath() + Diff.THEIRS_FILE_EXTENSION);
-                    if (theirsFile.exists()) {
-                        final List<String> theirsLines = Files.readAllLines(theirsFile.toPath(), BranchInfo.DEFAULT_CHARSET);
-                        final List<String> originalLines = Files.readAllLines(revised.toPath(), BranchInfo.DEFAULT_CHARSET);
-                        final File oursFile = new File(revised.getPath() + Diff.ORIGINAL_FILE_EXTENSION);
-                        if (oursFile.exists()) {
-                            final List<String> oursLines = Files.readAllLines(oursFile.toPath(), BranchInfo.DEFAULT_CHARSET);
-                            diffs.add(new MergeConflictDiff(originalLines, theirsLines, oursLines, relativePath));
-                        } else {
-                            diffs.add(new NewFileConflictDiff(theirsLines, originalLines, relativePath));
-                        }
-                    } else {
-                        if (original.isFile()) {
-                            final List<String> originalLines = Files.readAllLines(original.toPath(), BranchInfo.DEFAULT_CHARSET);
-                            final List<String> revisedLines = Files.readAllLines(revised.toPath(), BranchInfo.DEFAULT_CHARSET);
-                            try {
-                                final Patch<String> diff = DiffUtils.diff(originalLines, revisedLines);
-                                if (!diff.getDeltas().isEmpty()) {
-                                    diffs.add(new ModifiedFileDiff(diff, relativePath, originalLines, original));
-                                }
-                            } catch (DiffException e) {
-                                throw new RuntimeException(e.getMessage());
-                            }
-                        } else if (!original.exists()) {
-                            diffs.add(new NewFileDiff(Files.readAllBytes(revised.toPath()), relativePath));
-                        }
-                    }
-                } else {
-                    if (original.isFile() && !revised.exists()) {
-                        diffs.add(new DeleteFileDiff(relativePath, Files.readAllLines(original.toPath(), BranchInfo.DEFAULT_CHARSET)));
-                    }
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return diffs;
-    }
-
-    private boolean isIgnore(File source) {
-        return source.isHidden() || source.getName().endsWith(Diff.THEIRS_FILE_EXTENSION) || source.getName().endsWith(Diff.ORIGINAL_FILE_EXTENSION);
-    }
-
-    private void addDeletedDiffs(Path targetPath, String relativePath, ArrayList<Diff> diffs) throws IOException {
-        Files.walkFileTree(targetPath, new SimpleFileVisitor<Path>() {
-
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (attrs.isRegularFile()) {
-                    final String newRelativePath = relativePath + File.separator + targetPath.relativize(file).toString();
-                    try {
-                        diffs.add(new DeleteFileDiff(newRelativePath, Files.readAllLines(targetPath, BranchInfo.DEFAULT_CHARSET)));
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-                return FileVisitResult.CONTINUE;
-            }
-        });
-    }
-
     private ValueResult<Void> storeConfig(String projectId, String branch, String groupId) {
         final File apiVCSDirectory = getApiVCSDirectory();
         apiVCSDirectory.mkdirs();
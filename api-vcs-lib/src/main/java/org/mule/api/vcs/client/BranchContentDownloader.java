@@ -0,0 +1,142 @@
+package org.mule.api.vcs.client;
+
+import org.mule.api.vcs.client.metrics.ApiVCSMetrics;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+import org.mule.api.vcs.client.service.ApiFile;
+import org.mule.api.vcs.client.service.ApiFileContent;
+import org.mule.api.vcs.client.service.BranchRepositoryManager;
+import org.mule.api.vcs.client.store.ObjectStore;
+import org.mule.api.vcs.client.store.RemoteSnapshot;
+import org.mule.api.vcs.client.store.Tree;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+public class BranchContentDownloader {
+
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    private final int concurrency;
+    private final MetricsRegistry metrics;
+
+    public BranchContentDownloader(int concurrency) {
+        this(concurrency, MetricsRegistry.NOOP);
+    }
+
+    public BranchContentDownloader(int concurrency, MetricsRegistry metrics) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Download concurrency must be at least 1 but was " + concurrency);
+        }
+        this.concurrency = concurrency;
+        this.metrics = metrics;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public ValueResult<Tree> download(BranchRepositoryManager branchRepositoryManager, List<ApiFile> files, ObjectStore store, File... targetDirectories) {
+        return download(branchRepositoryManager, files, store, RemoteSnapshot.EMPTY, targetDirectories);
+    }
+
+    //Files whose remote version is already in `known` are resolved from the store instead of being fetched
+    public ValueResult<Tree> download(BranchRepositoryManager branchRepositoryManager, List<ApiFile> files, ObjectStore store, RemoteSnapshot known, File... targetDirectories) {
+        if (files.isEmpty()) {
+            return ValueResult.success(Tree.EMPTY);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, files.size()), (runnable) -> {
+            final Thread thread = new Thread(runnable, "apivcs-download");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<ValueResult<String>>> results = files.stream()
+                    .map((file) -> {
+                        final Optional<String> knownHash = knownHash(file, store, known);
+                        if (knownHash.isPresent()) {
+                            return CompletableFuture.completedFuture(restoreFile(file, knownHash.get(), store, targetDirectories));
+                        } else {
+                            return executor.submit(() -> downloadFile(branchRepositoryManager, file, store, targetDirectories));
+                        }
+                    })
+                    .collect(Collectors.toList());
+            //Report failures in listing order so the outcome matches a sequential download
+            final Tree.Builder tree = Tree.builder();
+            for (int i = 0; i < files.size(); i++) {
+                final ValueResult<String> fileResult = results.get(i).get();
+                if (fileResult.isFailure()) {
+                    return fileResult.asFailure();
+                }
+                tree.put(files.get(i).getPath(), fileResult.doGetValue());
+            }
+            return ValueResult.success(tree.build());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ValueResult.fail("Download was interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Optional<String> knownHash(ApiFile file, ObjectStore store, RemoteSnapshot known) {
+        return file.getVersion()
+                .flatMap((version) -> known.hashOf(file.getPath(), version))
+                .filter(store::contains);
+    }
+
+    private ValueResult<String> restoreFile(ApiFile file, String hash, ObjectStore store, File... targetDirectories) {
+        metrics.counter(ApiVCSMetrics.FILES_RESTORED).increment();
+        if (targetDirectories.length == 0) {
+            return ValueResult.success(hash);
+        }
+        try {
+            return writeFile(file, store.get(hash), targetDirectories).map((v) -> hash);
+        } catch (IOException e) {
+            return ValueResult.fail("Problem while trying to read file " + file.getPath() + " from the local store.");
+        }
+    }
+
+    private ValueResult<String> downloadFile(BranchRepositoryManager branchRepositoryManager, ApiFile file, ObjectStore store, File... targetDirectories) {
+        final ApiFileContent fileContent = branchRepositoryManager.fileContent(file.getPath());
+        metrics.counter(ApiVCSMetrics.FILES_FETCHED).increment();
+        metrics.counter(ApiVCSMetrics.BYTES_FETCHED).increment(fileContent.getContent().length);
+        metrics.histogram(ApiVCSMetrics.FETCHED_FILE_BYTES).record(fileContent.getContent().length);
+        final String hash;
+        try {
+            hash = store.put(fileContent.getContent());
+        } catch (IOException e) {
+            return ValueResult.fail("Problem while trying to store file " + file.getPath() + ".");
+        }
+        return writeFile(file, fileContent.getContent(), targetDirectories).map((v) -> hash);
+    }
+
+    private ValueResult<Void> writeFile(ApiFile file, byte[] content, File... targetDirectories) {
+        for (File directory : targetDirectories) {
+            final File targetFile = new File(directory, file.getPath());
+            //Make sure container folder exists
+            if (!targetFile.getParentFile().exists())
+                targetFile.getParentFile().mkdirs();
+            try (FileOutputStream writer = new FileOutputStream(targetFile)) {
+                writer.write(content);
+            } catch (IOException e) {
+                return ValueResult.fail("Problem while trying to write file " + file.getPath() + ".");
+            }
+        }
+        return ValueResult.SUCCESS;
+    }
+}
@@ -0,0 +1,122 @@
+package org.mule.api.vcs.client;
+
+import org.mule.api.vcs.client.diff.Diff;
+import org.mule.api.vcs.client.diff.FileContentChange;
+import org.mule.api.vcs.client.diff.MergeListener;
+import org.mule.api.vcs.client.metrics.ApiVCSMetrics;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+import org.mule.api.vcs.client.service.ApiFileUpdate;
+import org.mule.api.vcs.client.service.BranchRepositoryManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+public class BranchContentUploader {
+
+    public static final int DEFAULT_MAX_BATCH_FILES = 50;
+    public static final long DEFAULT_MAX_BATCH_BYTES = 4 * 1024 * 1024;
+
+    private final int maxBatchFiles;
+    private final long maxBatchBytes;
+    private final MetricsRegistry metrics;
+
+    public BranchContentUploader(int maxBatchFiles, long maxBatchBytes) {
+        this(maxBatchFiles, maxBatchBytes, MetricsRegistry.NOOP);
+    }
+
+    public BranchContentUploader(int maxBatchFiles, long maxBatchBytes, MetricsRegistry metrics) {
+        if (maxBatchFiles < 1) {
+            throw new IllegalArgumentException("Push batch must allow at least 1 file but was " + maxBatchFiles);
+        }
+        this.maxBatchFiles = maxBatchFiles;
+        this.maxBatchBytes = maxBatchBytes;
+        this.metrics = metrics;
+    }
+
+    public int getMaxBatchFiles() {
+        return maxBatchFiles;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    //Stops at the first batch the remote rejects, every diff that did reach the remote is added to `pushed`
+    public ValueResult<Void> upload(BranchRepositoryManager branchRepositoryManager, List<Diff> diffs, File targetDirectory, MergeListener listener, List<Diff> pushed) {
+        final List<Diff> batch = new ArrayList<>();
+        final List<ApiFileUpdate> batchUpdates = new ArrayList<>();
+        long batchBytes = 0;
+        for (Diff diff : diffs) {
+            if (diff instanceof FileContentChange) {
+                final ApiFileUpdate fileUpdate;
+                try {
+                    fileUpdate = ((FileContentChange) diff).toFileUpdate(targetDirectory);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                final int size = fileUpdate.getContent().length;
+                if (!batch.isEmpty() && (batch.size() >= maxBatchFiles || batchBytes + size > maxBatchBytes)) {
+                    final Optional<String> failure = saveBatch(branchRepositoryManager, batch, batchUpdates, batchBytes, listener, pushed);
+                    if (failure.isPresent()) {
+                        return stopped(diffs, pushed, failure.get());
+                    }
+                    batchBytes = 0;
+                }
+                batch.add(diff);
+                batchUpdates.add(fileUpdate);
+                batchBytes += size;
+            } else {
+                try {
+                    diff.push(branchRepositoryManager, targetDirectory);
+                } catch (RuntimeException e) {
+                    return stopped(diffs, pushed, String.valueOf(e.getMessage()));
+                }
+                metrics.counter(ApiVCSMetrics.FILES_UPLOADED).increment();
+                pushed.add(diff);
+                listener.pushing(diff);
+            }
+        }
+        if (!batch.isEmpty()) {
+            final Optional<String> failure = saveBatch(branchRepositoryManager, batch, batchUpdates, batchBytes, listener, pushed);
+            if (failure.isPresent()) {
+                return stopped(diffs, pushed, failure.get());
+            }
+        }
+        return ValueResult.SUCCESS;
+    }
+
+    //Names every diff that did not reach the remote, starting with the ones that failed
+    private static ValueResult<Void> stopped(List<Diff> diffs, List<Diff> pushed, String reason) {
+        final Set<Diff> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+        saved.addAll(pushed);
+        final List<String> unsaved = new ArrayList<>();
+        for (Diff diff : diffs) {
+            if (!saved.contains(diff)) {
+                unsaved.add(diff.getRelativePath());
+            }
+        }
+        return ValueResult.fail("Unable to push " + String.join(", ", unsaved) + " : " + reason);
+    }
+
+    //Empty when the remote saved the batch, the reason it did not otherwise
+    private Optional<String> saveBatch(BranchRepositoryManager branchRepositoryManager, List<Diff> batch, List<ApiFileUpdate> batchUpdates, long batchBytes, MergeListener listener, List<Diff> pushed) {
+        metrics.histogram(ApiVCSMetrics.UPLOAD_BATCH_BYTES).record(batchBytes);
+        try {
+            if (!branchRepositoryManager.saveFiles(new ArrayList<>(batchUpdates))) {
+                return Optional.of("the remote did not save a batch of " + batch.size() + " files.");
+            }
+        } catch (RuntimeException e) {
+            return Optional.of(String.valueOf(e.getMessage()));
+        }
+        metrics.counter(ApiVCSMetrics.FILES_UPLOADED).increment(batch.size());
+        metrics.counter(ApiVCSMetrics.BYTES_UPLOADED).increment(batchBytes);
+        for (Diff diff : batch) {
+            pushed.add(diff);
+            listener.pushing(diff);
+        }
+        batch.clear();
+        batchUpdates.clear();
+        return Optional.empty();
+    }
+}
@@ -39,5 +39,10 @@ public class DefaultMergeListener implements MergeListener {
 
     }
 
+    @Override
+    public void waitingForLock(String owner, long waitedMillis, long maxWaitMillis) {
+
+    }
+
 
 }
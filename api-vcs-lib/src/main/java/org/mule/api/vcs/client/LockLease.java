@@ -0,0 +1,113 @@
+package org.mule.api.vcs.client;
+
+import org.mule.api.vcs.client.service.BranchRepositoryLock;
+import org.mule.api.vcs.client.service.RepositoryFileManager;
+import org.mule.api.vcs.client.service.UserInfoProvider;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//A branch lock held by this process: renewed while in use, released on close or when the JVM exits
+public class LockLease {
+
+    static final String PROJECT_ID_KEY = "projectId";
+    static final String BRANCH_KEY = "branch";
+    static final String ORG_ID_KEY = "orgId";
+    static final String RENEWED_AT_KEY = "renewedAt";
+
+    private final RepositoryFileManager fileManager;
+    private final UserInfoProvider provider;
+    private final BranchInfo branchInfo;
+    private final BranchRepositoryLock lock;
+    private final File leaseFile;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean lost;
+    private ScheduledFuture<?> heartbeat;
+    private Thread shutdownHook;
+
+    LockLease(RepositoryFileManager fileManager, UserInfoProvider provider, BranchInfo branchInfo, BranchRepositoryLock lock, File leaseFile) {
+        this.fileManager = fileManager;
+        this.provider = provider;
+        this.branchInfo = branchInfo;
+        this.lock = lock;
+        this.leaseFile = leaseFile;
+    }
+
+    public boolean isAcquired() {
+        return lock.isSuccess();
+    }
+
+    public BranchRepositoryLock getLock() {
+        return lock;
+    }
+
+    //True when a renewal found the lock taken by someone else
+    public boolean isLost() {
+        return lost;
+    }
+
+    void start(long heartbeatMillis, ScheduledExecutorService scheduler) {
+        record();
+        shutdownHook = new Thread(this::releaseRemote, "apivcs-lock-release");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        heartbeat = scheduler.scheduleWithFixedDelay(this::renew, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void release() {
+        if (!isAcquired() || !released.compareAndSet(false, true)) {
+            return;
+        }
+        heartbeat.cancel(false);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            //Already exiting, the hook releases the lock
+        }
+        releaseRemote();
+    }
+
+    private void renew() {
+        try {
+            //Acquiring a lock we own extends it
+            if (fileManager.acquireLock(provider, branchInfo.getProjectId(), branchInfo.getBranch()).isSuccess()) {
+                record();
+            } else {
+                lost = true;
+            }
+        } catch (RuntimeException e) {
+            //The lock is still ours until the service says otherwise, try again on the next beat
+        }
+    }
+
+    private void releaseRemote() {
+        try {
+            fileManager.releaseLock(provider, branchInfo.getProjectId(), branchInfo.getBranch());
+            leaseFile.delete();
+        } catch (RuntimeException e) {
+            //The lease file stays behind so the next run releases the lock
+        }
+    }
+
+    private void record() {
+        final Properties properties = new Properties();
+        properties.setProperty(PROJECT_ID_KEY, branchInfo.getProjectId());
+        properties.setProperty(BRANCH_KEY, branchInfo.getBranch());
+        if (branchInfo.getOrgId() != null) {
+            properties.setProperty(ORG_ID_KEY, branchInfo.getOrgId());
+        }
+        properties.setProperty(RENEWED_AT_KEY, String.valueOf(System.currentTimeMillis()));
+        leaseFile.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(leaseFile)) {
+            properties.store(out, null);
+        } catch (IOException e) {
+            //Only needed to clean up after a crash
+        }
+    }
+}
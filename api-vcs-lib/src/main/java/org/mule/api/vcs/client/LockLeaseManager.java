@@ -0,0 +1,96 @@
+package org.mule.api.vcs.client;
+
+import org.mule.api.vcs.client.service.BranchRepositoryLock;
+import org.mule.api.vcs.client.service.RepositoryFileManager;
+import org.mule.api.vcs.client.service.UserInfoProvider;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mule.api.vcs.client.service.OrgIdUserInfoProviderDecorator.withOrgId;
+
+//Keeps track of the branch locks taken from a workspace under `.apivcs/leases` so a lock left by a killed
+//process is released by the next run instead of blocking everyone
+public class LockLeaseManager {
+
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 60 * 1000;
+    public static final String LEASES_FOLDER_NAME = "leases";
+    //A lease that missed this many renewals belongs to a process that is gone
+    private static final int STALE_AFTER_HEARTBEATS = 3;
+
+    private static ScheduledExecutorService heartbeats;
+
+    private final long heartbeatMillis;
+
+    public LockLeaseManager(long heartbeatMillis) {
+        if (heartbeatMillis < 1) {
+            throw new IllegalArgumentException("Lock heartbeat must be at least 1 ms but was " + heartbeatMillis);
+        }
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    public long getHeartbeatMillis() {
+        return heartbeatMillis;
+    }
+
+    public LockLease acquire(RepositoryFileManager fileManager, UserInfoProvider provider, BranchInfo branchInfo, File apiVCSDirectory) {
+        final File leasesDirectory = new File(apiVCSDirectory, LEASES_FOLDER_NAME);
+        final UserInfoProvider branchProvider = withOrgId(provider, branchInfo.getOrgId());
+        final BranchRepositoryLock lock = fileManager.acquireLock(branchProvider, branchInfo.getProjectId(), branchInfo.getBranch());
+        final LockLease lease = new LockLease(fileManager, branchProvider, branchInfo, lock, new File(leasesDirectory, UUID.randomUUID().toString()));
+        if (lease.isAcquired()) {
+            lease.start(heartbeatMillis, heartbeats());
+        }
+        return lease;
+    }
+
+    //Releases the locks of leases nobody renewed lately, returns how many were released
+    public int releaseStaleLeases(RepositoryFileManager fileManager, UserInfoProvider provider, File apiVCSDirectory) {
+        final File[] leaseFiles = new File(apiVCSDirectory, LEASES_FOLDER_NAME).listFiles(File::isFile);
+        if (leaseFiles == null) {
+            return 0;
+        }
+        final long staleBefore = System.currentTimeMillis() - STALE_AFTER_HEARTBEATS * heartbeatMillis;
+        int released = 0;
+        for (File leaseFile : leaseFiles) {
+            final Properties lease = new Properties();
+            try (InputStream in = new FileInputStream(leaseFile)) {
+                lease.load(in);
+            } catch (IOException e) {
+                continue;
+            }
+            final String projectId = lease.getProperty(LockLease.PROJECT_ID_KEY);
+            final String branch = lease.getProperty(LockLease.BRANCH_KEY);
+            final long renewedAt = Long.parseLong(lease.getProperty(LockLease.RENEWED_AT_KEY, "0"));
+            if (projectId == null || branch == null) {
+                leaseFile.delete();
+            } else if (renewedAt < staleBefore) {
+                try {
+                    fileManager.releaseLock(withOrgId(provider, lease.getProperty(LockLease.ORG_ID_KEY)), projectId, branch);
+                    leaseFile.delete();
+                    released++;
+                } catch (RuntimeException e) {
+                    //Keep it for the next run
+                }
+            }
+        }
+        return released;
+    }
+
+    private static synchronized ScheduledExecutorService heartbeats() {
+        if (heartbeats == null) {
+            heartbeats = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+                final Thread thread = new Thread(runnable, "apivcs-lock-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return heartbeats;
+    }
+}
@@ -0,0 +1,45 @@
+package org.mule.api.vcs.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+//How long an operation waits for a branch locked by someone else before giving up
+public class LockWaitPolicy {
+
+    public static final long DEFAULT_POLL_MILLIS = 1000;
+
+    private final long maxWaitMillis;
+    private long pollMillis = DEFAULT_POLL_MILLIS;
+
+    public LockWaitPolicy(long maxWaitMillis) {
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Max lock wait can not be negative but was " + maxWaitMillis);
+        }
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    //Fails as soon as the lock is taken
+    public static LockWaitPolicy noWait() {
+        return new LockWaitPolicy(0);
+    }
+
+    public void setPollMillis(long pollMillis) {
+        if (pollMillis < 0) {
+            throw new IllegalArgumentException("Lock poll interval can not be negative but was " + pollMillis);
+        }
+        this.pollMillis = pollMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    //The interval does not grow while waiting: a waiter backing off further the longer it waits would lose the lock
+    //to every newcomer polling faster. Equal jitter, half of the interval is random, keeps waiters from polling in step
+    public long pollMillis() {
+        if (pollMillis <= 1) {
+            return pollMillis;
+        }
+        final long half = pollMillis / 2;
+        return half + ThreadLocalRandom.current().nextLong(pollMillis - half + 1);
+    }
+}
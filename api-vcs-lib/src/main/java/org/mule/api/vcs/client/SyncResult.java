@@ -0,0 +1,40 @@
+package org.mule.api.vcs.client;
+
+import java.io.File;
+import java.util.Optional;
+
+//Outcome of syncing one workspace
+public class SyncResult {
+
+    private final File workspace;
+    private final String branch;
+    private final ValueResult<Void> result;
+    private final long elapsedNanos;
+
+    public SyncResult(File workspace, String branch, ValueResult<Void> result, long elapsedNanos) {
+        this.workspace = workspace;
+        this.branch = branch;
+        this.result = result;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public File getWorkspace() {
+        return workspace;
+    }
+
+    public Optional<String> getBranch() {
+        return Optional.ofNullable(branch);
+    }
+
+    public ValueResult<Void> getResult() {
+        return result;
+    }
+
+    public boolean isSuccess() {
+        return result.isSuccess();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,275 @@
+package org.mule.api.vcs.client;
+
+import com.github.difflib.patch.Patch;
+import org.mule.api.vcs.client.diff.*;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+import org.mule.api.vcs.client.store.ObjectStore;
+import org.mule.api.vcs.client.store.Tree;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static org.mule.api.vcs.client.metrics.ApiVCSMetrics.DIFF_IDENTICAL;
+import static org.mule.api.vcs.client.metrics.ApiVCSMetrics.DIFF_REPLACED;
+import static org.mule.api.vcs.client.metrics.ApiVCSMetrics.DIFF_STAT_UNCHANGED;
+
+public class WorkspaceDiffEngine {
+
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    //Below this amount of work a task is not split any further
+    private static final int PATHS_PER_TASK = 8;
+    //Engines with the same parallelism share a pool, so short lived clients such as the ones WorkspaceSync creates
+    //per workspace do not leave idle worker threads behind
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final int parallelism;
+    private final int maxEditDistance;
+    private final ForkJoinPool pool;
+
+    public WorkspaceDiffEngine(int parallelism) {
+        this(parallelism, LineDiff.DEFAULT_MAX_EDIT_DISTANCE);
+    }
+
+    public WorkspaceDiffEngine(int parallelism, int maxEditDistance) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Diff parallelism must be at least 1 but was " + parallelism);
+        }
+        if (maxEditDistance < 0) {
+            throw new IllegalArgumentException("Diff max edit distance can not be negative but was " + maxEditDistance);
+        }
+        this.parallelism = parallelism;
+        this.maxEditDistance = maxEditDistance;
+        this.pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    //Differences between the workspace and the `original` tree, sorted by path
+    public List<Diff> diff(File workspace, Tree original, ObjectStore store, WorkspaceIndex index, MetricsRegistry metrics) {
+        if (isIgnore(workspace)) {
+            return new ArrayList<>();
+        }
+        return invoke(() -> {
+            final SortedMap<String, File> revisedFiles = pool.invoke(new ListDirectoryTask(workspace, ""));
+            final SortedSet<String> paths = new TreeSet<>(revisedFiles.keySet());
+            //The listing skips ignored files, tracked ones under the same rule would otherwise look deleted
+            for (String path : original.paths()) {
+                if (!isIgnore(path)) {
+                    paths.add(path);
+                }
+            }
+            return pool.invoke(new DiffPathsTask(new ArrayList<>(paths), (path) -> diffWorkspaceFile(path, revisedFiles.get(path), original, store, index, metrics)));
+        });
+    }
+
+    //Differences needed to turn `original` into `revised`, sorted by path
+    public List<Diff> diff(Tree original, Tree revised, ObjectStore store, MetricsRegistry metrics) {
+        if (original.equals(revised)) {
+            return new ArrayList<>();
+        }
+        final SortedSet<String> paths = new TreeSet<>(original.paths());
+        paths.addAll(revised.paths());
+        return invoke(() -> pool.invoke(new DiffPathsTask(new ArrayList<>(paths), (path) -> diffTreeFile(path, original, revised, store, metrics))));
+    }
+
+    public static boolean isIgnore(File source) {
+        return source.isHidden() || source.getName().endsWith(Diff.THEIRS_FILE_EXTENSION) || source.getName().endsWith(Diff.ORIGINAL_FILE_EXTENSION);
+    }
+
+    //Same rule as isIgnore(File) applied to every segment of a normalized tree path
+    public static boolean isIgnore(String path) {
+        for (String segment : path.split("/")) {
+            if (segment.startsWith(".") || segment.endsWith(Diff.THEIRS_FILE_EXTENSION) || segment.endsWith(Diff.ORIGINAL_FILE_EXTENSION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String toRelativePath(String path) {
+        return "." + File.separator + path.replace('/', File.separatorChar);
+    }
+
+    private List<Diff> invoke(DiffComputation computation) {
+        try {
+            return computation.compute();
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Optional<Diff> diffTreeFile(String path, Tree original, Tree revised, ObjectStore store, MetricsRegistry metrics) throws IOException {
+        final Optional<String> originalHash = original.get(path);
+        final Optional<String> revisedHash = revised.get(path);
+        if (originalHash.equals(revisedHash)) {
+            return Optional.empty();
+        }
+        final String relativePath = toRelativePath(path);
+        if (!revisedHash.isPresent()) {
+            return Optional.of(deleted(relativePath, originalHash.get(), store));
+        } else if (!originalHash.isPresent()) {
+            return Optional.of(new NewFileDiff(store.get(revisedHash.get()), relativePath));
+        } else if (FileUtils.isBinary(store.getFile(originalHash.get())) || FileUtils.isBinary(store.getFile(revisedHash.get()))) {
+            return Optional.of(new BinaryFileDiff(relativePath, store.getFile(originalHash.get()), store.getFile(revisedHash.get()), originalHash.get()));
+        } else {
+            return modified(relativePath, originalHash.get(), store.getLineSource(revisedHash.get()), store, metrics);
+        }
+    }
+
+    private Optional<Diff> diffWorkspaceFile(String path, File revised, Tree original, ObjectStore store, WorkspaceIndex index, MetricsRegistry metrics) throws IOException {
+        final String relativePath = toRelativePath(path);
+        final Optional<String> originalHash = original.get(path);
+        if (revised == null) {
+            return Optional.of(deleted(relativePath, originalHash.get(), store));
+        }
+        final File theirsFile = new File(revised.getPath() + Diff.THEIRS_FILE_EXTENSION);
+        if (theirsFile.exists() && (FileUtils.isBinary(theirsFile) || FileUtils.isBinary(revised))) {
+            return Optional.of(new BinaryConflictDiff(relativePath, !new File(revised.getPath() + Diff.ORIGINAL_FILE_EXTENSION).exists()));
+        } else if (theirsFile.exists()) {
+            final List<String> theirsLines = Files.readAllLines(theirsFile.toPath(), BranchInfo.DEFAULT_CHARSET);
+            final List<String> originalLines = Files.readAllLines(revised.toPath(), BranchInfo.DEFAULT_CHARSET);
+            final File oursFile = new File(revised.getPath() + Diff.ORIGINAL_FILE_EXTENSION);
+            if (oursFile.exists()) {
+                final List<String> oursLines = Files.readAllLines(oursFile.toPath(), BranchInfo.DEFAULT_CHARSET);
+                return Optional.of(new MergeConflictDiff(originalLines, theirsLines, oursLines, relativePath));
+            } else {
+                return Optional.of(new NewFileConflictDiff(theirsLines, originalLines, relativePath));
+            }
+        } else if (!originalHash.isPresent()) {
+            return Optional.of(new NewFileDiff(Files.readAllBytes(revised.toPath()), relativePath));
+        } else if (index.isUnchanged(path, revised, originalHash.get())) {
+            metrics.counter(DIFF_STAT_UNCHANGED).increment();
+        } else if (store.hasContent(originalHash.get(), revised)) {
+            //Not in the index yet (or touched), but nothing to decode or diff
+            metrics.counter(DIFF_IDENTICAL).increment();
+            index.markUnchanged(path, revised, originalHash.get());
+        } else if (FileUtils.isBinary(store.getFile(originalHash.get())) || FileUtils.isBinary(revised)) {
+            index.remove(path);
+            return Optional.of(new BinaryFileDiff(relativePath, store.getFile(originalHash.get()), revised, originalHash.get()));
+        } else {
+            //Read whole on the heap, an editor or a concurrent pull truncating a mapped file crashes the reader. Only the
+            //original from the ObjectStore is mapped, so heap use still grows with the size of the workspace file
+            final Optional<Diff> modified = modified(relativePath, originalHash.get(), LineSource.of(Files.readAllBytes(revised.toPath())), store, metrics);
+            if (modified.isPresent()) {
+                index.remove(path);
+                return modified;
+            } else {
+                index.markUnchanged(path, revised, originalHash.get());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Diff> modified(String relativePath, String originalHash, LineSource revised, ObjectStore store, MetricsRegistry metrics) throws IOException {
+        final LineSource original = store.getLineSource(originalHash);
+        final Optional<Patch<String>> diff = LineDiff.diff(original, revised, maxEditDistance);
+        if (!diff.isPresent()) {
+            metrics.counter(DIFF_REPLACED).increment();
+            return Optional.of(new ModifiedFileDiff(LineDiff.replacement(original, revised), relativePath, original.lines(), originalHash, true));
+        }
+        if (diff.get().getDeltas().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ModifiedFileDiff(diff.get(), relativePath, original.lines(), originalHash));
+    }
+
+    private static Diff deleted(String relativePath, String originalHash, ObjectStore store) throws IOException {
+        final File original = store.getFile(originalHash);
+        if (FileUtils.isBinary(original)) {
+            return new DeleteFileDiff(relativePath, original);
+        }
+        return new DeleteFileDiff(relativePath, store.getLineSource(originalHash).lines());
+    }
+
+    private interface DiffComputation {
+        List<Diff> compute();
+    }
+
+    private interface PathDiff {
+        Optional<Diff> diff(String path) throws IOException;
+    }
+
+    //Splits the sorted paths in halves and concatenates the results in the same order
+    private static class DiffPathsTask extends RecursiveTask<List<Diff>> {
+        private final List<String> paths;
+        private final PathDiff pathDiff;
+
+        DiffPathsTask(List<String> paths, PathDiff pathDiff) {
+            this.paths = paths;
+            this.pathDiff = pathDiff;
+        }
+
+        @Override
+        protected List<Diff> compute() {
+            if (paths.size() <= PATHS_PER_TASK) {
+                final List<Diff> result = new ArrayList<>();
+                for (String path : paths) {
+                    try {
+                        pathDiff.diff(path).ifPresent(result::add);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return result;
+            }
+            final int middle = paths.size() / 2;
+            final DiffPathsTask left = new DiffPathsTask(paths.subList(0, middle), pathDiff);
+            final DiffPathsTask right = new DiffPathsTask(paths.subList(middle, paths.size()), pathDiff);
+            left.fork();
+            final List<Diff> rightResult = right.compute();
+            final List<Diff> result = left.join();
+            result.addAll(rightResult);
+            return result;
+        }
+    }
+
+    //Lists every non ignored file under `directory`, keyed by its normalized path relative to the workspace
+    private static class ListDirectoryTask extends RecursiveTask<SortedMap<String, File>> {
+        private final File directory;
+        private final String prefix;
+
+        ListDirectoryTask(File directory, String prefix) {
+            this.directory = directory;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected SortedMap<String, File> compute() {
+            final SortedMap<String, File> result = new TreeMap<>();
+            final File[] children = directory.listFiles();
+            if (children == null) {
+                return result;
+            }
+            final List<ListDirectoryTask> subdirectories = new ArrayList<>();
+            for (File child : children) {
+                if (isIgnore(child)) {
+                    continue;
+                }
+                if (child.isDirectory()) {
+                    final ListDirectoryTask task = new ListDirectoryTask(child, prefix + child.getName() + "/");
+                    task.fork();
+                    subdirectories.add(task);
+                } else if (child.isFile()) {
+                    result.put(prefix + child.getName(), child);
+                }
+            }
+            for (ListDirectoryTask subdirectory : subdirectories) {
+                result.putAll(subdirectory.join());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.mule.api.vcs.client;
+
+import org.mule.api.vcs.client.diff.FileUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class WorkspaceIndex {
+
+    public static final String INDEX_FILE_NAME = "index";
+
+    private static final String MAGIC = "APIVCS-INDEX";
+    private static final int VERSION = 2;
+    //Files modified this close to the moment the index was written can not be trusted by stat alone
+    private static final long RACY_MARGIN_MILLIS = 2000;
+
+    private final File indexFile;
+    private final Map<String, Entry> entries;
+    private long timestamp;
+    //Files are diffed concurrently so entries may be updated from several threads
+    private volatile boolean dirty;
+    //Size and modification time of the index file as last read or written by this instance
+    private long fileLength;
+    private long fileLastModified;
+
+    private WorkspaceIndex(File indexFile, Map<String, Entry> entries, long timestamp) {
+        this.indexFile = indexFile;
+        this.entries = entries;
+        this.timestamp = timestamp;
+        if (indexFile != null) {
+            this.fileLength = indexFile.length();
+            this.fileLastModified = indexFile.lastModified();
+        }
+    }
+
+    public static WorkspaceIndex disabled() {
+        return new WorkspaceIndex(null, new ConcurrentHashMap<>(), 0);
+    }
+
+    public static WorkspaceIndex load(File apiVCSDirectory) {
+        final File indexFile = new File(apiVCSDirectory, INDEX_FILE_NAME);
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (indexFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                if (MAGIC.equals(in.readUTF()) && in.readInt() == VERSION) {
+                    final long timestamp = in.readLong();
+                    final int size = in.readInt();
+                    for (int i = 0; i < size; i++) {
+                        final String path = in.readUTF();
+                        entries.put(path, new Entry(in.readLong(), in.readLong(), in.readUTF()));
+                    }
+                    return new WorkspaceIndex(indexFile, entries, timestamp);
+                }
+            } catch (IOException e) {
+                //Corrupted index just start from scratch
+                entries.clear();
+            }
+        }
+        return new WorkspaceIndex(indexFile, entries, 0);
+    }
+
+    //True when nobody else rewrote the index file since this instance loaded or saved it
+    public boolean isCurrent() {
+        return isEnabled() && fileLength == indexFile.length() && fileLastModified == indexFile.lastModified();
+    }
+
+    public boolean isEnabled() {
+        return indexFile != null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //True when the file is known to be equivalent to the object `originalHash` without reading it
+    public boolean isUnchanged(String path, File revised, String originalHash) throws IOException {
+        if (!isEnabled()) {
+            return false;
+        }
+        final Entry entry = entries.get(path);
+        if (entry == null || !entry.hash.equals(originalHash)) {
+            return false;
+        }
+        final BasicFileAttributes revisedAttributes = attributes(revised);
+        if (entry.matches(revisedAttributes) && !isRacy(revisedAttributes)) {
+            return true;
+        }
+        //Stat changed (e.g. touched) but the content may still be the same
+        if (entry.size == revisedAttributes.size() && originalHash.equals(FileUtils.contentHash(Files.readAllBytes(revised.toPath())))) {
+            markUnchanged(path, revisedAttributes, originalHash);
+            //Even with the same entry, a racy one is only trusted again once the index is written with a later timestamp
+            dirty = true;
+            return true;
+        }
+        return false;
+    }
+
+    public void markUnchanged(String path, File revised, String originalHash) throws IOException {
+        if (isEnabled()) {
+            markUnchanged(path, attributes(revised), originalHash);
+        }
+    }
+
+    private void markUnchanged(String path, BasicFileAttributes revisedAttributes, String originalHash) {
+        final Entry entry = new Entry(revisedAttributes.size(), revisedAttributes.lastModifiedTime().toMillis(), originalHash);
+        if (!entry.equals(entries.put(path, entry))) {
+            dirty = true;
+        }
+    }
+
+    public void remove(String path) {
+        if (isEnabled() && entries.remove(path) != null) {
+            dirty = true;
+        }
+    }
+
+    public void save() {
+        if (!isEnabled() || !dirty) {
+            return;
+        }
+        final File tmpFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeUTF(MAGIC);
+            out.writeInt(VERSION);
+            timestamp = System.currentTimeMillis();
+            out.writeLong(timestamp);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().size);
+                out.writeLong(entry.getValue().lastModified);
+                out.writeUTF(entry.getValue().hash);
+            }
+        } catch (IOException e) {
+            //The index is only a cache, failing to write it is not an error
+            tmpFile.delete();
+            return;
+        }
+        try {
+            //Readers see either the old or the new index, never a missing one
+            Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmpFile.delete();
+            return;
+        }
+        fileLength = indexFile.length();
+        fileLastModified = indexFile.lastModified();
+        dirty = false;
+    }
+
+    private boolean isRacy(BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().toMillis() + RACY_MARGIN_MILLIS >= timestamp;
+    }
+
+    private static BasicFileAttributes attributes(File file) throws IOException {
+        return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        Entry(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Entry entry = (Entry) o;
+            return size == entry.size &&
+                    lastModified == entry.lastModified &&
+                    Objects.equals(hash, entry.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, hash);
+        }
+    }
+}
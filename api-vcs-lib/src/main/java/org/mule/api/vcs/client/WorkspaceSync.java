@@ -0,0 +1,137 @@
+package org.mule.api.vcs.client;
+
+import org.mule.api.vcs.client.diff.MergingStrategy;
+import org.mule.api.vcs.client.service.ConcurrencyLimitedRepositoryFileManager;
+import org.mule.api.vcs.client.service.RepositoryFileManager;
+import org.mule.api.vcs.client.service.UserInfoProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+//Pulls or pushes every apivcs workspace under a directory at the same time. All workspaces share the
+//remote manager, so they share its connections and the caller's session, and a limit of requests in flight
+public class WorkspaceSync {
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+    public static final int DEFAULT_MAX_DEPTH = 4;
+
+    public enum Operation {
+        PULL, PUSH
+    }
+
+    private final RepositoryFileManager fileManager;
+    private final int maxConcurrentRequests;
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+    private Function<ApiVCSClient, ApiVCSClient> clientConfigurer = Function.identity();
+
+    public WorkspaceSync(RepositoryFileManager fileManager, int maxConcurrentRequests) {
+        this.fileManager = new ConcurrencyLimitedRepositoryFileManager(fileManager, maxConcurrentRequests);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    //Applied to the client of every workspace before it syncs, to set metrics, retries or lock waits
+    public void setClientConfigurer(Function<ApiVCSClient, ApiVCSClient> clientConfigurer) {
+        this.clientConfigurer = clientConfigurer;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    //Directories holding an apivcs workspace, workspaces are not searched for nested ones
+    public List<File> findWorkspaces(File root) throws IOException {
+        final List<File> workspaces = new ArrayList<>();
+        Files.walkFileTree(root.toPath(), EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                final File directory = dir.toFile();
+                if (!dir.equals(root.toPath()) && directory.getName().startsWith(".")) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (ApiVCSClient.getConfigFile(new File(directory, ApiVCSClient.APIVCS_FOLDER_NAME)).isFile()) {
+                    workspaces.add(directory);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                //Unreadable directories can not hold a workspace we could sync
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(workspaces);
+        return workspaces;
+    }
+
+    public List<SyncResult> sync(UserInfoProvider provider, File root, Operation operation, MergingStrategy mergingStrategy) throws IOException {
+        return sync(provider, findWorkspaces(root), operation, mergingStrategy);
+    }
+
+    //Results in the order of `workspaces`, a failing workspace does not stop the others
+    public List<SyncResult> sync(UserInfoProvider provider, List<File> workspaces, Operation operation, MergingStrategy mergingStrategy) {
+        if (workspaces.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final int parallelism = Math.min(workspaces.size(), maxConcurrentRequests);
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, (runnable) -> {
+            final Thread thread = new Thread(runnable, "apivcs-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<SyncResult>> pending = new ArrayList<>();
+            for (File workspace : workspaces) {
+                pending.add(executor.submit(() -> sync(provider, workspace, operation, mergingStrategy, parallelism)));
+            }
+            final List<SyncResult> results = new ArrayList<>();
+            for (Future<SyncResult> result : pending) {
+                results.add(result.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while syncing workspaces", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SyncResult sync(UserInfoProvider provider, File workspace, Operation operation, MergingStrategy mergingStrategy, int parallelism) {
+        final long start = System.nanoTime();
+        final ApiVCSClient created = new ApiVCSClient(workspace, fileManager);
+        //Workspaces already run side by side, their diffs do not need every core each
+        created.setDiffParallelism(Math.max(1, WorkspaceDiffEngine.DEFAULT_PARALLELISM / parallelism));
+        final ApiVCSClient client = clientConfigurer.apply(created);
+        final String branch = client.currentBranch().getValue().orElse(null);
+        ValueResult<Void> result;
+        try {
+            if (operation == Operation.PULL) {
+                result = client.pull(provider, mergingStrategy, new DefaultMergeListener());
+            } else {
+                result = client.push(provider, mergingStrategy, new DefaultMergeListener());
+            }
+        } catch (RuntimeException e) {
+            result = ValueResult.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        return new SyncResult(workspace, branch, result, System.nanoTime() - start);
+    }
+}
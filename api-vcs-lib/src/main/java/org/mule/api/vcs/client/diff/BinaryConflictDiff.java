@@ -0,0 +1,91 @@
+package org.mule.api.vcs.client.diff;
+
+import org.mule.api.vcs.client.service.BranchRepositoryManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Objects;
+
+//Conflict left by a binary change, the competing versions stay on disk next to the file instead of being read
+public class BinaryConflictDiff implements Diff, Conflict {
+
+    private String relativePath;
+    private boolean newFile;
+
+    public BinaryConflictDiff(String relativePath, boolean newFile) {
+        this.relativePath = relativePath;
+        this.newFile = newFile;
+    }
+
+    public boolean isNewFile() {
+        return newFile;
+    }
+
+    @Override
+    public ApplyResult resolve(File targetDirectory, MergingStrategy mergingStrategy) {
+        final File theirsFile = new File(targetDirectory, relativePath + Diff.THEIRS_FILE_EXTENSION);
+        final File originalFile = new File(targetDirectory, relativePath + Diff.ORIGINAL_FILE_EXTENSION);
+        switch (mergingStrategy) {
+            case KEEP_OURS:
+                theirsFile.delete();
+                originalFile.delete();
+                return ApplyResult.SUCCESSFUL;
+            case KEEP_THEIRS:
+                try {
+                    FileUtils.copyReplacing(theirsFile, new File(targetDirectory, relativePath));
+                } catch (IOException e) {
+                    return ApplyResult.fail("Unable to resolve `" + relativePath + "`. Reason :" + e.getMessage());
+                }
+                theirsFile.delete();
+                originalFile.delete();
+                return ApplyResult.SUCCESSFUL;
+            default:
+                return ApplyResult.fail("Binary Conflict doesn't support " + mergingStrategy.name());
+        }
+    }
+
+    @Override
+    public ApplyResult apply(File targetDirectory, MergingStrategy mergingStrategy) {
+        return ApplyResult.fail("Merge conflicts can not be applied");
+    }
+
+    @Override
+    public void print(PrintWriter printWriter) {
+
+    }
+
+    @Override
+    public void push(BranchRepositoryManager branch, File targetDirectory) {
+
+    }
+
+    @Override
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    @Override
+    public MergeOperation getOperationType() {
+        return newFile ? MergeOperation.NEW_FILE_CONFLICT : MergeOperation.MERGE_CONFLICT;
+    }
+
+    @Override
+    public ApplyResult unApply(File targetDirectory) {
+        return ApplyResult.fail("Merge conflicts can not be un applied");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BinaryConflictDiff that = (BinaryConflictDiff) o;
+        return newFile == that.newFile &&
+                Objects.equals(relativePath, that.relativePath);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(relativePath, newFile);
+    }
+}
@@ -0,0 +1,118 @@
+package org.mule.api.vcs.client.diff;
+
+import org.mule.api.vcs.client.service.ApiFileUpdate;
+import org.mule.api.vcs.client.service.BranchRepositoryManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.Objects;
+
+//Change to a file that is not text. Both versions are kept as files and compared or copied byte by byte, nothing is
+//ever split in lines or decoded
+public class BinaryFileDiff implements Diff, FileContentChange {
+
+    private String relativePath;
+    private File original;
+    private File revised;
+    private String originalHash;
+
+    public BinaryFileDiff(String relativePath, File original, File revised, String originalHash) {
+        this.relativePath = relativePath;
+        this.original = original;
+        this.revised = revised;
+        this.originalHash = originalHash;
+    }
+
+    public String getOriginalHash() {
+        return originalHash;
+    }
+
+    @Override
+    public ApplyResult apply(File targetDirectory, MergingStrategy mergingStrategy) {
+        final File file = new File(targetDirectory, relativePath);
+        try {
+            if (file.isFile() && (FileUtils.sameContent(file, original) || FileUtils.sameContent(file, revised))) {
+                FileUtils.copyReplacing(revised, file);
+                return ApplyResult.SUCCESSFUL;
+            }
+            //There is no way to merge bytes, the local change and theirs can only be kept side by side
+            switch (mergingStrategy) {
+                case KEEP_THEIRS:
+                    FileUtils.copyReplacing(revised, file);
+                    break;
+                case KEEP_BOTH:
+                    FileUtils.copyReplacing(revised, new File(targetDirectory, relativePath + Diff.THEIRS_FILE_EXTENSION));
+                    FileUtils.copyReplacing(original, new File(targetDirectory, relativePath + Diff.ORIGINAL_FILE_EXTENSION));
+                    break;
+            }
+            return ApplyResult.fail("Conflict occurred while merging changes.");
+        } catch (IOException e) {
+            return failError(e);
+        }
+    }
+
+    @Override
+    public void print(PrintWriter printWriter) {
+        printWriter.println("Index: " + relativePath);
+        printWriter.println("===================================================================");
+        printWriter.println("Binary files a/" + relativePath + " and b/" + relativePath + " differ");
+    }
+
+    @Override
+    public void push(BranchRepositoryManager branch, File targetDirectory) {
+        try {
+            final ApiFileUpdate fileUpdate = toFileUpdate(targetDirectory);
+            branch.updateFile(fileUpdate.getPath(), fileUpdate.getContent());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public ApiFileUpdate toFileUpdate(File targetDirectory) throws IOException {
+        final File file = new File(targetDirectory, relativePath).getCanonicalFile();
+        return new ApiFileUpdate(relativePath, Files.readAllBytes(file.toPath()), Files.probeContentType(file.toPath()), false);
+    }
+
+    @Override
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    @Override
+    public MergeOperation getOperationType() {
+        return MergeOperation.MODIFIED;
+    }
+
+    @Override
+    public ApplyResult unApply(File targetDirectory) {
+        try {
+            FileUtils.copyReplacing(original, new File(targetDirectory, relativePath));
+        } catch (IOException e) {
+            return failError(e);
+        }
+        return ApplyResult.SUCCESSFUL;
+    }
+
+    private ApplyResult failError(IOException e) {
+        return ApplyResult.fail("[FATAL] Error while trying to write `" + relativePath + "`. Reason :" + e.getMessage());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BinaryFileDiff that = (BinaryFileDiff) o;
+        return Objects.equals(relativePath, that.relativePath) &&
+                Objects.equals(original, that.original) &&
+                Objects.equals(revised, that.revised) &&
+                Objects.equals(originalHash, that.originalHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(relativePath, original, revised, originalHash);
+    }
+}
@@ -16,12 +16,24 @@ public class DeleteFileDiff implements Diff {
 
     private String relativePath;
     private List<String> originalLines;
+    //Set instead of the lines when the deleted file is binary
+    private File original;
 
     public DeleteFileDiff(String relativePath, List<String> originalLines) {
         this.relativePath = relativePath;
         this.originalLines = originalLines;
     }
 
+    public DeleteFileDiff(String relativePath, File original) {
+        this.relativePath = relativePath;
+        this.originalLines = new ArrayList<>();
+        this.original = original;
+    }
+
+    public boolean isBinary() {
+        return original != null;
+    }
+
     public String getRelativePath() {
         return relativePath;
     }
@@ -33,6 +45,14 @@ public class DeleteFileDiff implements Diff {
 
     @Override
     public ApplyResult unApply(File targetDirectory) {
+        if (isBinary()) {
+            try {
+                FileUtils.copyReplacing(original, new File(targetDirectory, relativePath));
+                return ApplyResult.SUCCESSFUL;
+            } catch (IOException e) {
+                return ApplyResult.fail(e.getMessage());
+            }
+        }
         return FileUtils.writeFile(targetDirectory, relativePath, originalLines);
     }
 
@@ -57,6 +77,10 @@ public class DeleteFileDiff implements Diff {
     public void print(PrintWriter printWriter) {
         printWriter.println("Index: " + relativePath);
         printWriter.println("===================================================================");
+        if (isBinary()) {
+            printWriter.println("Binary file a/" + relativePath + " deleted");
+            return;
+        }
 
         final Patch<String> patch = new Patch<>();
         patch.addDelta(new DeleteDelta<>(new Chunk<>(0, originalLines), new Chunk<>(0, new String[0])));
@@ -79,11 +103,12 @@ public class DeleteFileDiff implements Diff {
         if (o == null || getClass() != o.getClass()) return false;
         DeleteFileDiff that = (DeleteFileDiff) o;
         return Objects.equals(relativePath, that.relativePath) &&
-                Objects.equals(originalLines, that.originalLines);
+                Objects.equals(originalLines, that.originalLines) &&
+                Objects.equals(original, that.original);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(relativePath, originalLines);
+        return Objects.hash(relativePath, originalLines, original);
     }
 }
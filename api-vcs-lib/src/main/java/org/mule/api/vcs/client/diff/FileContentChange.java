@@ -0,0 +1,11 @@
+package org.mule.api.vcs.client.diff;
+
+import org.mule.api.vcs.client.service.ApiFileUpdate;
+
+import java.io.File;
+import java.io.IOException;
+
+public interface FileContentChange {
+
+    ApiFileUpdate toFileUpdate(File targetDirectory) throws IOException;
+}
@@ -2,14 +2,25 @@ package org.mule.api.vcs.client.diff;
 
 import org.mule.api.vcs.client.BranchInfo;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
 public class FileUtils {
 
+    //Bytes of each file read at once by sameContent
+    private static final int COMPARE_CHUNK_BYTES = 64 * 1024;
+    //Like git, content with a NUL byte this close to the start is binary
+    private static final int BINARY_PROBE_BYTES = 8000;
+
     public static ApplyResult writeFile(File targetDirectory, String relativePath, List<String> originalLines) {
         final File file = new File(targetDirectory, relativePath);
         try (final OutputStreamWriter outputStreamWriter = new OutputStreamWriter(new FileOutputStream(file), BranchInfo.DEFAULT_CHARSET)) {
@@ -20,4 +31,122 @@ public class FileUtils {
         return ApplyResult.SUCCESSFUL;
     }
 
+    public static List<String> readLines(byte[] content) throws IOException {
+        final List<String> result = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content), BranchInfo.DEFAULT_CHARSET))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    //Sizes are compared first, then both files are read chunk by chunk so neither is copied whole on the heap.
+    //Not mapped, one of them is usually a workspace file that may be truncated meanwhile
+    public static boolean sameContent(File file, File other) throws IOException {
+        if (file.length() != other.length()) {
+            return false;
+        }
+        try (InputStream in = new FileInputStream(file); InputStream otherIn = new FileInputStream(other)) {
+            final byte[] chunk = new byte[COMPARE_CHUNK_BYTES];
+            final byte[] otherChunk = new byte[COMPARE_CHUNK_BYTES];
+            while (true) {
+                final int read = readChunk(in, chunk);
+                if (read != readChunk(otherIn, otherChunk)) {
+                    return false;
+                }
+                if (read == 0) {
+                    return true;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] != otherChunk[i]) {
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int readChunk(InputStream in, byte[] chunk) throws IOException {
+        int length = 0;
+        int read;
+        while (length < chunk.length && (read = in.read(chunk, length, chunk.length - length)) != -1) {
+            length += read;
+        }
+        return length;
+    }
+
+    public static boolean isBinary(byte[] content) {
+        final int probe = Math.min(content.length, BINARY_PROBE_BYTES);
+        for (int i = 0; i < probe; i++) {
+            if (content[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isBinary(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            final byte[] head = new byte[BINARY_PROBE_BYTES];
+            return isBinary(Arrays.copyOf(head, readChunk(in, head)));
+        }
+    }
+
+    //Media types whose content is text, API Designer serves everything else as raw bytes
+    public static boolean isTextMimeType(String mimeType) {
+        if (mimeType == null || mimeType.isEmpty()) {
+            return true;
+        }
+        final String type = mimeType.toLowerCase();
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml") || type.contains("yaml")
+                || type.contains("raml") || type.contains("javascript") || type.contains("markdown");
+    }
+
+    //Replaces `target` with the bytes of `source` without leaving it half written
+    public static void copyReplacing(File source, File target) throws IOException {
+        target.getParentFile().mkdirs();
+        final Path replaced = followLinks(target.toPath());
+        final Path tmp = temporarySibling(replaced);
+        try {
+            Files.copy(source.toPath(), tmp);
+            moveReplacing(tmp, replaced);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    //The file to replace instead of `file`, so a symlink keeps pointing to the new content
+    public static Path followLinks(Path file) throws IOException {
+        return Files.exists(file) ? file.toRealPath() : file;
+    }
+
+    //Hidden so a diff running meanwhile does not pick it up
+    public static Path temporarySibling(Path file) {
+        return file.resolveSibling("." + file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+    }
+
+    //Atomically moves `tmp` over `target`, keeping the permissions (like the executable bit) of the file it replaces
+    public static void moveReplacing(Path tmp, Path target) throws IOException {
+        final PosixFileAttributeView attributes = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (attributes != null && Files.exists(target)) {
+            Files.setPosixFilePermissions(tmp, attributes.readAttributes().permissions());
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static String contentHash(byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            final StringBuilder result = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 }
@@ -0,0 +1,304 @@
+package org.mule.api.vcs.client.diff;
+
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.patch.DeltaType;
+import com.github.difflib.patch.Patch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+//Line diff that compares int ids instead of strings. The common head and tail are skipped first, then every distinct
+//line of what is left gets an id from one table shared by both files, so each line is hashed once and the Myers
+//search only compares ints. Strings are only used again to build the Patch
+public class LineDiff {
+
+    //Search cost and memory grow with the number of inserted plus deleted lines, past this many a reordered or
+    //regenerated file is cheaper to show as replaced
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 4096;
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private LineDiff() {
+    }
+
+    public static Patch<String> diff(List<String> originalLines, List<String> revisedLines) {
+        return diff(new StringLines(originalLines), new StringLines(revisedLines), originalLines, revisedLines, UNBOUNDED).get();
+    }
+
+    //Compares the raw bytes of both sources, only the lines that end up in the patch are decoded
+    public static Patch<String> diff(LineSource original, LineSource revised) {
+        return diff(original, revised, UNBOUNDED).get();
+    }
+
+    //Empty when more than `maxEditDistance` lines have to be inserted or deleted, the search stops as soon as it knows
+    public static Optional<Patch<String>> diff(LineSource original, LineSource revised, int maxEditDistance) {
+        return diff(new SourceLines(original), new SourceLines(revised), original.lines(), revised.lines(), maxEditDistance);
+    }
+
+    //Single change replacing every line between the common head and tail, what a diff over budget is shown as
+    public static Patch<String> replacement(LineSource original, LineSource revised) {
+        final Lines originalLines = new SourceLines(original);
+        final Lines revisedLines = new SourceLines(revised);
+        final int prefix = commonPrefix(originalLines, revisedLines);
+        final int suffix = commonSuffix(originalLines, revisedLines, prefix);
+        return patch(original.lines(), revised.lines(), prefix, wholeMiddle(original.size() - suffix - prefix, revised.size() - suffix - prefix));
+    }
+
+    private static Optional<Patch<String>> diff(Lines original, Lines revised, List<String> originalLines, List<String> revisedLines, int maxEditDistance) {
+        final int prefix = commonPrefix(original, revised);
+        final int suffix = commonSuffix(original, revised, prefix);
+        final int originalMiddle = original.size() - suffix - prefix;
+        final int revisedMiddle = revised.size() - suffix - prefix;
+        //The sizes alone tell how many lines are inserted or deleted at least
+        if (Math.abs(originalMiddle - revisedMiddle) > maxEditDistance) {
+            return Optional.empty();
+        }
+        final List<Change> changes;
+        if (originalMiddle == 0 || revisedMiddle == 0) {
+            changes = wholeMiddle(originalMiddle, revisedMiddle);
+        } else {
+            final LineTable table = new LineTable(originalMiddle + revisedMiddle);
+            final PathNode path = buildPath(table.encode(original, prefix, originalMiddle), table.encode(revised, prefix, revisedMiddle), maxEditDistance);
+            if (path == null) {
+                return Optional.empty();
+            }
+            changes = changes(path);
+        }
+        return Optional.of(patch(originalLines, revisedLines, prefix, changes));
+    }
+
+    private static List<Change> wholeMiddle(int originalMiddle, int revisedMiddle) {
+        final List<Change> changes = new ArrayList<>();
+        if (originalMiddle != 0 || revisedMiddle != 0) {
+            final DeltaType type = originalMiddle == 0 ? DeltaType.INSERT : revisedMiddle == 0 ? DeltaType.DELETE : DeltaType.CHANGE;
+            changes.add(new Change(type, 0, originalMiddle, 0, revisedMiddle));
+        }
+        return changes;
+    }
+
+    private static Patch<String> patch(List<String> originalLines, List<String> revisedLines, int prefix, List<Change> changes) {
+        final List<Change> shifted = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            shifted.add(new Change(change.deltaType, change.startOriginal + prefix, change.endOriginal + prefix, change.startRevised + prefix, change.endRevised + prefix));
+        }
+        return Patch.generate(originalLines, revisedLines, shifted);
+    }
+
+    private static int commonPrefix(Lines original, Lines revised) {
+        final int max = Math.min(original.size(), revised.size());
+        int prefix = 0;
+        while (prefix < max && original.same(prefix, revised, prefix)) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    private static int commonSuffix(Lines original, Lines revised, int prefix) {
+        final int max = Math.min(original.size(), revised.size()) - prefix;
+        int suffix = 0;
+        while (suffix < max && original.same(original.size() - 1 - suffix, revised, revised.size() - 1 - suffix)) {
+            suffix++;
+        }
+        return suffix;
+    }
+
+    private static List<Change> changes(PathNode path) {
+        final List<Change> changes = new ArrayList<>();
+        if (path.snake) {
+            path = path.prev;
+        }
+        while (path != null && path.prev != null && path.prev.j >= 0) {
+            final int i = path.i;
+            final int j = path.j;
+            path = path.prev;
+            final int originalAnchor = path.i;
+            final int revisedAnchor = path.j;
+            if (originalAnchor == i && revisedAnchor != j) {
+                changes.add(new Change(DeltaType.INSERT, originalAnchor, i, revisedAnchor, j));
+            } else if (originalAnchor != i && revisedAnchor == j) {
+                changes.add(new Change(DeltaType.DELETE, originalAnchor, i, revisedAnchor, j));
+            } else {
+                changes.add(new Change(DeltaType.CHANGE, originalAnchor, i, revisedAnchor, j));
+            }
+            if (path.snake) {
+                path = path.prev;
+            }
+        }
+        return changes;
+    }
+
+    //Greedy forward search of the furthest reaching path on each diagonal, null when no path has at most
+    //`maxEditDistance` edits. Each round d only looks at diagonals -d..d, so giving up early also bounds the nodes kept
+    private static PathNode buildPath(int[] original, int[] revised, int maxEditDistance) {
+        final int n = original.length;
+        final int m = revised.length;
+        final int max = n + m + 1;
+        final int size = 1 + 2 * max;
+        final int middle = size / 2;
+        final PathNode[] diagonal = new PathNode[size];
+        diagonal[middle + 1] = new PathNode(0, -1, true, true, null);
+        final int rounds = (int) Math.min(max, maxEditDistance + 1L);
+        for (int d = 0; d < rounds; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                final int kMiddle = middle + k;
+                final int kPlus = kMiddle + 1;
+                final int kMinus = kMiddle - 1;
+                final PathNode prev;
+                int i;
+                if (k == -d || (k != d && diagonal[kMinus].i < diagonal[kPlus].i)) {
+                    i = diagonal[kPlus].i;
+                    prev = diagonal[kPlus];
+                } else {
+                    i = diagonal[kMinus].i + 1;
+                    prev = diagonal[kMinus];
+                }
+                diagonal[kMinus] = null;
+                int j = i - k;
+                PathNode node = new PathNode(i, j, false, false, prev);
+                while (i < n && j < m && original[i] == revised[j]) {
+                    i++;
+                    j++;
+                }
+                if (i != node.i) {
+                    node = new PathNode(i, j, true, false, node);
+                }
+                diagonal[kMiddle] = node;
+                if (i >= n && j >= m) {
+                    return node;
+                }
+            }
+            diagonal[middle + d - 1] = null;
+        }
+        if (rounds < max) {
+            return null;
+        }
+        throw new IllegalStateException("Could not find a diff path");
+    }
+
+    private static class PathNode {
+        private final int i;
+        private final int j;
+        private final boolean snake;
+        private final boolean bootstrap;
+        private final PathNode prev;
+
+        PathNode(int i, int j, boolean snake, boolean bootstrap, PathNode prev) {
+            this.i = i;
+            this.j = j;
+            this.snake = snake;
+            this.bootstrap = bootstrap;
+            //Only snakes are kept in the chain, a diff step links to the snake before it
+            this.prev = snake || prev == null ? prev : prev.previousSnake();
+        }
+
+        PathNode previousSnake() {
+            if (bootstrap) {
+                return null;
+            }
+            if (!snake && prev != null) {
+                return prev.previousSnake();
+            }
+            return this;
+        }
+    }
+
+    //Either side of a diff, both sides are always of the same kind
+    private interface Lines {
+        int size();
+
+        int hash(int index);
+
+        boolean same(int index, Lines other, int otherIndex);
+    }
+
+    private static class StringLines implements Lines {
+        private final List<String> lines;
+
+        StringLines(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int size() {
+            return lines.size();
+        }
+
+        @Override
+        public int hash(int index) {
+            return lines.get(index).hashCode();
+        }
+
+        @Override
+        public boolean same(int index, Lines other, int otherIndex) {
+            return lines.get(index).equals(((StringLines) other).lines.get(otherIndex));
+        }
+    }
+
+    private static class SourceLines implements Lines {
+        private final LineSource source;
+
+        SourceLines(LineSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public int hash(int index) {
+            return source.hash(index);
+        }
+
+        @Override
+        public boolean same(int index, Lines other, int otherIndex) {
+            return source.sameLine(index, ((SourceLines) other).source, otherIndex);
+        }
+    }
+
+    //Open addressing table from line to id, ids are handed out in order of first appearance
+    private static class LineTable {
+        private final Lines[] owners;
+        private final int[] indexes;
+        private final int[] slots;
+        private final int mask;
+        private int size;
+
+        LineTable(int expectedLines) {
+            final int capacity = Integer.highestOneBit(Math.max(2, expectedLines) * 2 - 1) << 1;
+            this.owners = new Lines[expectedLines];
+            this.indexes = new int[expectedLines];
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int[] encode(Lines lines, int from, int count) {
+            final int[] encoded = new int[count];
+            for (int i = 0; i < count; i++) {
+                encoded[i] = idOf(lines, from + i);
+            }
+            return encoded;
+        }
+
+        private int idOf(Lines lines, int index) {
+            int slot = mix(lines.hash(index)) & mask;
+            while (slots[slot] != 0) {
+                final int id = slots[slot] - 1;
+                if (lines.same(index, owners[id], indexes[id])) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            owners[size] = lines;
+            indexes[size] = index;
+            slots[slot] = size + 1;
+            return size++;
+        }
+
+        private static int mix(int hash) {
+            final int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
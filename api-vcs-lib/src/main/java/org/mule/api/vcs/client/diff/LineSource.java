@@ -0,0 +1,197 @@
+package org.mule.api.vcs.client.diff;
+
+import org.mule.api.vcs.client.BranchInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+//Lines of a file read in place. Large files are memory mapped and only the offsets of every line live on the heap,
+//a line is decoded to a String when someone asks for it. Lines are split like BufferedReader.readLine does
+public class LineSource {
+
+    //Below this size reading the whole file is cheaper than mapping it
+    public static final int MAPPING_THRESHOLD = 64 * 1024;
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final ByteBuffer content;
+    private final int[] starts;
+    private final int[] ends;
+    private final int size;
+
+    private LineSource(ByteBuffer content) {
+        this.content = content;
+        final int length = content.limit();
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int size = 0;
+        int start = 0;
+        int i = 0;
+        //CR and LF never show up inside a multi byte UTF-8 sequence, so the bytes can be split without decoding
+        while (i < length) {
+            final byte b = content.get(i);
+            if (b == LF || b == CR) {
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size * 2);
+                    ends = Arrays.copyOf(ends, size * 2);
+                }
+                starts[size] = start;
+                ends[size] = i;
+                size++;
+                i += b == CR && i + 1 < length && content.get(i + 1) == LF ? 2 : 1;
+                start = i;
+            } else {
+                i++;
+            }
+        }
+        if (start < length) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size + 1);
+                ends = Arrays.copyOf(ends, size + 1);
+            }
+            starts[size] = start;
+            ends[size] = length;
+            size++;
+        }
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    //Only for files nobody truncates or replaces while the source is in use, like objects of the ObjectStore
+    public static LineSource open(File file) throws IOException {
+        final long length = file.length();
+        if (length < MAPPING_THRESHOLD) {
+            return of(Files.readAllBytes(file.toPath()));
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("`" + file.getAbsolutePath() + "` is too large to be compared line by line.");
+        }
+        //The mapping outlives the channel and is released once the source is no longer referenced
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new LineSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        }
+    }
+
+    public static LineSource of(byte[] content) {
+        return new LineSource(ByteBuffer.wrap(content));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CharSequence line(int index) {
+        return new Line(index);
+    }
+
+    //Lines decoded on every access, copying a range only decodes that range
+    public List<String> lines() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return decode(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public int hash(int index) {
+        int hash = 1;
+        for (int i = starts[index]; i < ends[index]; i++) {
+            hash = 31 * hash + content.get(i);
+        }
+        return hash;
+    }
+
+    public boolean sameLine(int index, LineSource other, int otherIndex) {
+        final int length = ends[index] - starts[index];
+        if (length != other.ends[otherIndex] - other.starts[otherIndex]) {
+            return false;
+        }
+        final int start = starts[index];
+        final int otherStart = other.starts[otherIndex];
+        for (int i = 0; i < length; i++) {
+            if (content.get(start + i) != other.content.get(otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Copies the bytes of the line without its terminator
+    public void writeLine(int index, OutputStream out) throws IOException {
+        final int start = starts[index];
+        final int length = ends[index] - start;
+        if (content.hasArray()) {
+            out.write(content.array(), content.arrayOffset() + start, length);
+        } else {
+            out.write(copy(start, length));
+        }
+    }
+
+    private String decode(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Line " + index + " of " + size);
+        }
+        final int start = starts[index];
+        final int length = ends[index] - start;
+        if (content.hasArray()) {
+            return new String(content.array(), content.arrayOffset() + start, length, BranchInfo.DEFAULT_CHARSET);
+        }
+        return new String(copy(start, length), BranchInfo.DEFAULT_CHARSET);
+    }
+
+    private byte[] copy(int start, int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = content.get(start + i);
+        }
+        return bytes;
+    }
+
+    private class Line implements CharSequence {
+        private final int index;
+        private String decoded;
+
+        Line(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int i) {
+            return toString().charAt(i);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            if (decoded == null) {
+                decoded = decode(index);
+            }
+            return decoded;
+        }
+    }
+}
@@ -16,4 +16,8 @@ public interface MergeListener {
 
     void endPushing();
 
+    //The branch is locked by `owner`, the operation keeps polling until `maxWaitMillis`
+    default void waitingForLock(String owner, long waitedMillis, long maxWaitMillis) {
+    }
+
 }
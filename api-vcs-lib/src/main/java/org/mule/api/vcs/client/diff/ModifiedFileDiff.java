@@ -2,48 +2,64 @@ package org.mule.api.vcs.client.diff;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Chunk;
 import com.github.difflib.patch.Patch;
 import com.github.difflib.patch.PatchFailedException;
 import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.service.ApiFileUpdate;
 import org.mule.api.vcs.client.service.BranchRepositoryManager;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
-public class ModifiedFileDiff implements Diff {
+public class ModifiedFileDiff implements Diff, FileContentChange {
 
     private Patch<String> diff;
     private String relativePath;
     private List<String> originalLines;
-    private File original;
+    private String originalHash;
+    //The line diff went over its budget and `diff` replaces the lines between the common head and tail
+    private boolean replacement;
 
-    public ModifiedFileDiff(Patch<String> diff, String relativePath, List<String> originalLines, File original) {
+    public ModifiedFileDiff(Patch<String> diff, String relativePath, List<String> originalLines, String originalHash) {
+        this(diff, relativePath, originalLines, originalHash, false);
+    }
+
+    public ModifiedFileDiff(Patch<String> diff, String relativePath, List<String> originalLines, String originalHash, boolean replacement) {
         this.diff = diff;
         this.relativePath = relativePath;
         this.originalLines = originalLines;
-        this.original = original;
+        this.originalHash = originalHash;
+        this.replacement = replacement;
     }
 
-    public File getOriginal() {
-        return original;
+    public boolean isReplacement() {
+        return replacement;
+    }
+
+    public String getOriginalHash() {
+        return originalHash;
     }
 
     public List<String> getOriginalLines() {
         return originalLines;
     }
 
+    //Originals are no longer files in a branch snapshot directory but objects in the store, use getOriginalLines
+    @Deprecated
+    public List<String> getOriginal() {
+        return getOriginalLines();
+    }
+
     @Override
     public ApplyResult apply(File targetDirectory, MergingStrategy mergingStrategy) {
         try {
             final Path theFilePath = new File(targetDirectory, relativePath).toPath();
-            final List<String> source = Files.readAllLines(theFilePath, BranchInfo.DEFAULT_CHARSET);
-            final List<String> patch;
             try {
-                patch = DiffUtils.patch(source, diff);
-                Files.write(theFilePath, patch, BranchInfo.DEFAULT_CHARSET);
+                writePatched(theFilePath);
             } catch (PatchFailedException e) {
                 switch (mergingStrategy) {
                     case KEEP_THEIRS:
@@ -79,6 +95,54 @@ public class ModifiedFileDiff implements Diff {
         }
     }
 
+    //Same result as DiffUtils.patch + Files.write, but lines outside the deltas are copied as bytes instead of being
+    //decoded to Strings. The file itself is still read whole on the heap: a file still mapped can not be replaced on
+    //Windows, and a workspace file may be truncated meanwhile
+    private void writePatched(Path workspaceFile) throws IOException, PatchFailedException {
+        final Path theFilePath = FileUtils.followLinks(workspaceFile);
+        final LineSource source = LineSource.of(Files.readAllBytes(theFilePath));
+        final List<AbstractDelta<String>> deltas = new ArrayList<>(diff.getDeltas());
+        deltas.sort(Comparator.comparingInt((delta) -> delta.getSource().getPosition()));
+        int next = 0;
+        for (AbstractDelta<String> delta : deltas) {
+            final Chunk<String> chunk = delta.getSource();
+            if (chunk.getPosition() < next || chunk.getPosition() + chunk.size() > source.size()) {
+                throw new PatchFailedException("Incorrect Chunk: the position of chunk > target size");
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!source.line(chunk.getPosition() + i).toString().equals(chunk.getLines().get(i))) {
+                    throw new PatchFailedException("Incorrect Chunk: the chunk content doesn't match the target");
+                }
+            }
+            next = chunk.getPosition() + chunk.size();
+        }
+        final byte[] separator = System.lineSeparator().getBytes(BranchInfo.DEFAULT_CHARSET);
+        final Path tmp = FileUtils.temporarySibling(theFilePath);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                next = 0;
+                for (AbstractDelta<String> delta : deltas) {
+                    for (; next < delta.getSource().getPosition(); next++) {
+                        source.writeLine(next, out);
+                        out.write(separator);
+                    }
+                    for (String line : delta.getTarget().getLines()) {
+                        out.write(line.getBytes(BranchInfo.DEFAULT_CHARSET));
+                        out.write(separator);
+                    }
+                    next += delta.getSource().size();
+                }
+                for (; next < source.size(); next++) {
+                    source.writeLine(next, out);
+                    out.write(separator);
+                }
+            }
+            FileUtils.moveReplacing(tmp, theFilePath);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
     @Override
     public void print(PrintWriter printWriter) {
         printWriter.println("Index: " + relativePath);
@@ -92,13 +156,19 @@ public class ModifiedFileDiff implements Diff {
     @Override
     public void push(BranchRepositoryManager branch, File targetDirectory) {
         try {
-            final Path fileToPush = new File(targetDirectory, relativePath).getCanonicalFile().toPath();
-            branch.updateFile(relativePath, Files.readAllBytes(fileToPush));
+            final ApiFileUpdate fileUpdate = toFileUpdate(targetDirectory);
+            branch.updateFile(fileUpdate.getPath(), fileUpdate.getContent());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public ApiFileUpdate toFileUpdate(File targetDirectory) throws IOException {
+        final Path fileToPush = new File(targetDirectory, relativePath).getCanonicalFile().toPath();
+        return new ApiFileUpdate(relativePath, Files.readAllBytes(fileToPush), null, false);
+    }
+
     @Override
     public String getRelativePath() {
         return relativePath;
@@ -132,11 +202,12 @@ public class ModifiedFileDiff implements Diff {
         return Objects.equals(diff, that.diff) &&
                 Objects.equals(relativePath, that.relativePath) &&
                 Objects.equals(originalLines, that.originalLines) &&
-                Objects.equals(original, that.original);
+                Objects.equals(originalHash, that.originalHash) &&
+                replacement == that.replacement;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(diff, relativePath, originalLines, original);
+        return Objects.hash(diff, relativePath, originalLines, originalHash, replacement);
     }
 }
@@ -5,6 +5,7 @@ import com.github.difflib.patch.Chunk;
 import com.github.difflib.patch.InsertDelta;
 import com.github.difflib.patch.Patch;
 import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.service.ApiFileUpdate;
 import org.mule.api.vcs.client.service.BranchRepositoryManager;
 
 import java.io.*;
@@ -14,7 +15,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-public class NewFileDiff implements Diff {
+public class NewFileDiff implements Diff, FileContentChange {
     private byte[] content;
     private String relativePath;
 
@@ -58,6 +59,10 @@ public class NewFileDiff implements Diff {
     public void print(PrintWriter printWriter) {
         printWriter.println("Index: " + relativePath);
         printWriter.println("===================================================================");
+        if (FileUtils.isBinary(content)) {
+            printWriter.println("Binary file b/" + relativePath + " added");
+            return;
+        }
         final Patch<String> patch = new Patch<>();
         patch.addDelta(new InsertDelta<>(new Chunk<>(0, new String[0]), new Chunk<>(0, getLines())));
         final List<String> stringList = UnifiedDiffUtils.generateUnifiedDiff(relativePath, relativePath, new ArrayList<>(), patch, 2);
@@ -73,15 +78,21 @@ public class NewFileDiff implements Diff {
 
     @Override
     public void push(BranchRepositoryManager branch, File targetDirectory) {
-        final File file = new File(targetDirectory, relativePath);
         try {
-            final String type = Files.probeContentType(file.toPath());
-            branch.newFile(relativePath, Files.readAllBytes(file.toPath()), type);
+            final ApiFileUpdate fileUpdate = toFileUpdate(targetDirectory);
+            branch.newFile(fileUpdate.getPath(), fileUpdate.getContent(), fileUpdate.getMimeType());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public ApiFileUpdate toFileUpdate(File targetDirectory) throws IOException {
+        final File file = new File(targetDirectory, relativePath);
+        final String type = Files.probeContentType(file.toPath());
+        return new ApiFileUpdate(relativePath, Files.readAllBytes(file.toPath()), type, true);
+    }
+
     @Override
     public String getRelativePath() {
         return relativePath;
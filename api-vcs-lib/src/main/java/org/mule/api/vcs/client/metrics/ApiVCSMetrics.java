@@ -0,0 +1,71 @@
+package org.mule.api.vcs.client.metrics;
+
+//Names of the metrics reported by ApiVCSClient
+public class ApiVCSMetrics {
+
+    //Whole operations
+    public static final String CLONE = "clone";
+    public static final String PULL = "pull";
+    public static final String PUSH = "push";
+    public static final String PUBLISH = "publish";
+
+    //Phases
+    public static final String ACQUIRE_LOCK = "lock.acquire";
+    //Time spent queued behind another owner, only recorded when the lock was taken
+    public static final String LOCK_WAIT = "lock.wait";
+    public static final String RELEASE_LOCK = "lock.release";
+    public static final String LIST_FILES = "remote.listFiles";
+    public static final String FETCH_CONTENT = "remote.fetchContent";
+    public static final String UPLOAD = "remote.upload";
+    public static final String PUBLISH_ASSET = "remote.publish";
+    public static final String WORKSPACE_DIFF = "workspace.diff";
+    public static final String BRANCH_DIFF = "branch.diff";
+    public static final String APPLY = "workspace.apply";
+
+    //Counters
+    public static final String FILES_LISTED = "files.listed";
+    public static final String FILES_FETCHED = "files.fetched";
+    public static final String FILES_RESTORED = "files.restored";
+    public static final String FILES_UPLOADED = "files.uploaded";
+    public static final String FILES_APPLIED = "files.applied";
+    public static final String FILES_CONFLICTED = "files.conflicted";
+    public static final String BYTES_FETCHED = "bytes.fetched";
+    public static final String BYTES_UPLOADED = "bytes.uploaded";
+    public static final String RETRIES = "remote.retries";
+    public static final String CIRCUIT_OPEN = "remote.circuitOpen";
+    public static final String STALE_LOCKS_RELEASED = "lock.staleReleased";
+    public static final String LOCK_CONTENDED = "lock.contended";
+    public static final String LOCK_POLLS = "lock.polls";
+    public static final String LOCK_WAIT_TIMEOUTS = "lock.waitTimeouts";
+    //Workspace files the diff skipped because the index trusted their stat, or because their bytes matched the original
+    public static final String DIFF_STAT_UNCHANGED = "diff.statUnchanged";
+    public static final String DIFF_IDENTICAL = "diff.identical";
+    //Modified files that went over the diff budget and are shown as replaced
+    public static final String DIFF_REPLACED = "diff.replaced";
+
+    //Histograms
+    public static final String FETCHED_FILE_BYTES = "fetch.fileBytes";
+    public static final String UPLOAD_BATCH_BYTES = "upload.batchBytes";
+
+    //Remote endpoints, recorded by the instrumented repository decorators
+    public static final String ENDPOINT_PREFIX = "endpoint.";
+
+    private ApiVCSMetrics() {
+    }
+
+    public static String endpoint(String operation) {
+        return ENDPOINT_PREFIX + operation;
+    }
+
+    public static String endpointErrors(String operation) {
+        return endpoint(operation) + ".errors";
+    }
+
+    public static String endpointStatus(String operation, int statusCode) {
+        return endpoint(operation) + ".status." + statusCode;
+    }
+
+    public static String endpointBytes(String operation) {
+        return endpoint(operation) + ".bytes";
+    }
+}
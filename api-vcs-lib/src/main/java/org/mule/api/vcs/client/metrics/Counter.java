@@ -0,0 +1,10 @@
+package org.mule.api.vcs.client.metrics;
+
+public interface Counter {
+
+    void increment(long amount);
+
+    default void increment() {
+        increment(1);
+    }
+}
@@ -0,0 +1,6 @@
+package org.mule.api.vcs.client.metrics;
+
+public interface Histogram {
+
+    void record(long value);
+}
@@ -0,0 +1,17 @@
+package org.mule.api.vcs.client.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class InMemoryCounter implements Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    @Override
+    public void increment(long amount) {
+        value.add(amount);
+    }
+
+    public long getValue() {
+        return value.sum();
+    }
+}
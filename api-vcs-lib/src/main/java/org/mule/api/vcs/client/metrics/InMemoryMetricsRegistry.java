@@ -0,0 +1,40 @@
+package org.mule.api.vcs.client.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Keeps every metric in memory so it can be printed when the operation ends
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, InMemoryTimer> timers = new ConcurrentHashMap<>();
+    private final Map<String, InMemoryCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, InMemoryHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public InMemoryTimer timer(String name) {
+        return timers.computeIfAbsent(name, (key) -> new InMemoryTimer());
+    }
+
+    @Override
+    public InMemoryCounter counter(String name) {
+        return counters.computeIfAbsent(name, (key) -> new InMemoryCounter());
+    }
+
+    @Override
+    public InMemoryHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, (key) -> new InMemoryHistogram());
+    }
+
+    public Map<String, InMemoryTimer> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    public Map<String, InMemoryCounter> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    public Map<String, InMemoryHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+}
@@ -0,0 +1,33 @@
+package org.mule.api.vcs.client.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+public class InMemoryTimer implements Timer {
+
+    private final InMemoryHistogram nanos = new InMemoryHistogram();
+
+    @Override
+    public void recordNanos(long nanos) {
+        this.nanos.record(nanos);
+    }
+
+    public long getCount() {
+        return nanos.getCount();
+    }
+
+    public long getTotal(TimeUnit unit) {
+        return unit.convert(nanos.getSum(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMax(TimeUnit unit) {
+        return unit.convert(nanos.getMax(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getPercentile(double percentile, TimeUnit unit) {
+        return unit.convert(nanos.getPercentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    public InMemoryHistogram getNanos() {
+        return nanos;
+    }
+}
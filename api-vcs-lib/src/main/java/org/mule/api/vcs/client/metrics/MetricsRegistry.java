@@ -0,0 +1,13 @@
+package org.mule.api.vcs.client.metrics;
+
+//Where the client reports how long each phase took and how much it transferred
+public interface MetricsRegistry {
+
+    MetricsRegistry NOOP = new NoOpMetricsRegistry();
+
+    Timer timer(String name);
+
+    Counter counter(String name);
+
+    Histogram histogram(String name);
+}
@@ -0,0 +1,50 @@
+package org.mule.api.vcs.client.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Plain text dump of an InMemoryMetricsRegistry
+public class MetricsReport {
+
+    private MetricsReport() {
+    }
+
+    public static void print(InMemoryMetricsRegistry metrics, PrintStream out) {
+        out.println("Timings:");
+        for (Map.Entry<String, InMemoryTimer> timer : metrics.getTimers().entrySet()) {
+            final InMemoryTimer value = timer.getValue();
+            out.println(String.format("\t%-32s %8d ms total, %5d calls, p50 %d ms, p99 %d ms, p999 %d ms, max %d ms",
+                    timer.getKey(),
+                    value.getTotal(TimeUnit.MILLISECONDS),
+                    value.getCount(),
+                    value.getPercentile(50, TimeUnit.MILLISECONDS),
+                    value.getPercentile(99, TimeUnit.MILLISECONDS),
+                    value.getPercentile(99.9, TimeUnit.MILLISECONDS),
+                    value.getMax(TimeUnit.MILLISECONDS)));
+        }
+        out.println("Counters:");
+        for (Map.Entry<String, InMemoryCounter> counter : metrics.getCounters().entrySet()) {
+            out.println(String.format("\t%-32s %8d", counter.getKey(), counter.getValue().getValue()));
+        }
+        out.println("Histograms:");
+        for (Map.Entry<String, InMemoryHistogram> histogram : metrics.getHistograms().entrySet()) {
+            final InMemoryHistogram value = histogram.getValue();
+            out.println(String.format("\t%-32s count %d, min %d, p50 %d, p99 %d, p999 %d, max %d",
+                    histogram.getKey(),
+                    value.getCount(),
+                    value.getMin(),
+                    value.getPercentile(50),
+                    value.getPercentile(99),
+                    value.getPercentile(99.9),
+                    value.getMax()));
+        }
+    }
+
+    //Prints the report when the JVM exits, useful for benchmarks and long running processes
+    public static Thread printAtExit(InMemoryMetricsRegistry metrics, PrintStream out) {
+        final Thread hook = new Thread(() -> print(metrics, out), "apivcs-metrics-report");
+        Runtime.getRuntime().addShutdownHook(hook);
+        return hook;
+    }
+}
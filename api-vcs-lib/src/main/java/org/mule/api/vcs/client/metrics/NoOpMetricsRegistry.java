@@ -0,0 +1,26 @@
+package org.mule.api.vcs.client.metrics;
+
+class NoOpMetricsRegistry implements MetricsRegistry {
+
+    private static final Timer TIMER = (nanos) -> {
+    };
+    private static final Counter COUNTER = (amount) -> {
+    };
+    private static final Histogram HISTOGRAM = (value) -> {
+    };
+
+    @Override
+    public Timer timer(String name) {
+        return TIMER;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return COUNTER;
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        return HISTOGRAM;
+    }
+}
@@ -0,0 +1,17 @@
+package org.mule.api.vcs.client.metrics;
+
+import java.util.function.Supplier;
+
+public interface Timer {
+
+    void recordNanos(long nanos);
+
+    default <T> T time(Supplier<T> operation) {
+        final long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            recordNanos(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.mule.api.vcs.client.mirror;
+
+import java.util.Optional;
+
+//What a mirror run did to one branch
+public class MirrorEntry {
+
+    public enum Status {
+        CREATED, UPDATED, UNCHANGED, FAILED
+    }
+
+    private static final String SEPARATOR = "\t";
+
+    private final String projectId;
+    private final String branch;
+    private final Status status;
+    private final int added;
+    private final int modified;
+    private final int deleted;
+    private final String message;
+
+    public MirrorEntry(String projectId, String branch, Status status, int added, int modified, int deleted, String message) {
+        this.projectId = projectId;
+        this.branch = branch;
+        this.status = status;
+        this.added = added;
+        this.modified = modified;
+        this.deleted = deleted;
+        this.message = message;
+    }
+
+    public static MirrorEntry failed(String projectId, String branch, String message) {
+        return new MirrorEntry(projectId, branch, Status.FAILED, 0, 0, 0, message);
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getModified() {
+        return modified;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public Optional<String> getMessage() {
+        return Optional.ofNullable(message);
+    }
+
+    String key() {
+        return key(projectId, branch);
+    }
+
+    static String key(String projectId, String branch) {
+        return projectId + "/" + branch;
+    }
+
+    //projectId, branch, status, added, modified, deleted and message separated by tabs
+    String toLine() {
+        return projectId + SEPARATOR + branch + SEPARATOR + status + SEPARATOR + added + SEPARATOR + modified + SEPARATOR + deleted
+                + SEPARATOR + (message == null ? "" : message.replaceAll("\\s+", " "));
+    }
+
+    static Optional<MirrorEntry> parse(String line) {
+        final String[] fields = line.split(SEPARATOR, 7);
+        if (fields.length < 6) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new MirrorEntry(fields[0], fields[1], Status.valueOf(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4]), Integer.parseInt(fields[5]),
+                    fields.length > 6 && !fields[6].isEmpty() ? fields[6] : null));
+        } catch (IllegalArgumentException e) {
+            //A line cut short by a crash
+            return Optional.empty();
+        }
+    }
+}
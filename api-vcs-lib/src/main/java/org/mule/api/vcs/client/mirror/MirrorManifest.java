@@ -0,0 +1,48 @@
+package org.mule.api.vcs.client.mirror;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+//Changes made by one mirror run, one line per branch
+public class MirrorManifest {
+
+    private final File file;
+    private final List<MirrorEntry> entries;
+
+    MirrorManifest(File file, List<MirrorEntry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    public static MirrorManifest read(File file) throws IOException {
+        final List<MirrorEntry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.startsWith("#")) {
+                MirrorEntry.parse(line).ifPresent(entries::add);
+            }
+        }
+        return new MirrorManifest(file, entries);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public List<MirrorEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public List<MirrorEntry> getEntries(MirrorEntry.Status status) {
+        return entries.stream().filter((entry) -> entry.getStatus() == status).collect(Collectors.toList());
+    }
+
+    public boolean isSuccess() {
+        return getEntries(MirrorEntry.Status.FAILED).isEmpty();
+    }
+}
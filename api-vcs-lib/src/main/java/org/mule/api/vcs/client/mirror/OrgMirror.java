@@ -0,0 +1,235 @@
+package org.mule.api.vcs.client.mirror;
+
+import org.mule.api.vcs.client.ApiVCSClient;
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.DefaultMergeListener;
+import org.mule.api.vcs.client.ValueResult;
+import org.mule.api.vcs.client.WorkspaceDiffEngine;
+import org.mule.api.vcs.client.diff.MergingStrategy;
+import org.mule.api.vcs.client.service.ApiBranch;
+import org.mule.api.vcs.client.service.ProjectInfo;
+import org.mule.api.vcs.client.service.RepositoryFileManager;
+import org.mule.api.vcs.client.service.UserInfoProvider;
+import org.mule.api.vcs.client.store.ObjectStore;
+import org.mule.api.vcs.client.store.Tree;
+
+import java.io.*;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+//Keeps a local copy of every branch of every project of an organization. `directory/<projectId>/<branch>` is a
+//regular workspace, so each run only fetches the files whose remote version changed since the previous one
+public class OrgMirror {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final String MIRROR_FOLDER_NAME = ".apivcs-mirror";
+    public static final String MANIFESTS_FOLDER_NAME = "manifests";
+    //Branches finished by the current run, left behind by an interrupted run so the next one resumes from it
+    public static final String JOURNAL_FILE_NAME = "journal";
+
+    private final RepositoryFileManager fileManager;
+    private final File directory;
+    private final int parallelism;
+    private Function<ApiVCSClient, ApiVCSClient> clientConfigurer = Function.identity();
+
+    public OrgMirror(RepositoryFileManager fileManager, File directory, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Mirror parallelism must be at least 1 but was " + parallelism);
+        }
+        this.fileManager = fileManager;
+        this.directory = directory;
+        this.parallelism = parallelism;
+    }
+
+    //Applied to the client of every branch before it is mirrored, to set metrics, retries or lock waits
+    public void setClientConfigurer(Function<ApiVCSClient, ApiVCSClient> clientConfigurer) {
+        this.clientConfigurer = clientConfigurer;
+    }
+
+    public File getBranchDirectory(String projectId, String branch) {
+        return new File(new File(directory, encode(projectId)), encode(branch));
+    }
+
+    //Mirrors every project of the provider's organization, projects are mirrored `parallelism` at a time
+    public MirrorManifest mirror(UserInfoProvider provider) throws IOException {
+        final File mirrorDirectory = new File(directory, MIRROR_FOLDER_NAME);
+        mirrorDirectory.mkdirs();
+        final File journalFile = new File(mirrorDirectory, JOURNAL_FILE_NAME);
+        final Map<String, MirrorEntry> resumed = new LinkedHashMap<>();
+        if (journalFile.isFile()) {
+            for (MirrorEntry entry : MirrorManifest.read(journalFile).getEntries()) {
+                if (entry.getStatus() != MirrorEntry.Status.FAILED) {
+                    resumed.put(entry.key(), entry);
+                }
+            }
+        }
+        final List<ProjectInfo> projects = fileManager.projects(provider);
+        final List<MirrorEntry> entries = new ArrayList<>();
+        try (Journal journal = new Journal(journalFile, resumed.values())) {
+            final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, projects.size())), (runnable) -> {
+                final Thread thread = new Thread(runnable, "apivcs-mirror");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                final List<Future<List<MirrorEntry>>> pending = new ArrayList<>();
+                for (ProjectInfo project : projects) {
+                    pending.add(executor.submit(() -> mirrorProject(provider, project.getProjectId(), resumed, journal)));
+                }
+                for (Future<List<MirrorEntry>> projectEntries : pending) {
+                    entries.addAll(projectEntries.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while mirroring, the next run resumes from " + journalFile.getAbsolutePath(), e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        final File manifestFile = writeManifest(mirrorDirectory, entries);
+        Files.delete(journalFile.toPath());
+        return new MirrorManifest(manifestFile, entries);
+    }
+
+    private List<MirrorEntry> mirrorProject(UserInfoProvider provider, String projectId, Map<String, MirrorEntry> resumed, Journal journal) throws IOException {
+        final List<MirrorEntry> entries = new ArrayList<>();
+        final List<ApiBranch> branches;
+        try {
+            branches = fileManager.branches(provider, projectId);
+        } catch (RuntimeException e) {
+            final MirrorEntry failed = MirrorEntry.failed(projectId, "*", "Unable to list branches : " + e.getMessage());
+            journal.append(failed);
+            entries.add(failed);
+            return entries;
+        }
+        for (ApiBranch branch : branches) {
+            MirrorEntry entry = resumed.get(MirrorEntry.key(projectId, branch.getName()));
+            if (entry == null) {
+                entry = mirrorBranch(provider, new BranchInfo(projectId, branch.getName(), provider.getOrgId()));
+                journal.append(entry);
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private MirrorEntry mirrorBranch(UserInfoProvider provider, BranchInfo branchInfo) {
+        final File workspace = getBranchDirectory(branchInfo.getProjectId(), branchInfo.getBranch());
+        final File apiVCSDirectory = new File(workspace, ApiVCSClient.APIVCS_FOLDER_NAME);
+        //A clone interrupted before storing its settings starts over
+        final boolean exists = ApiVCSClient.getConfigFile(apiVCSDirectory).isFile();
+        final ApiVCSClient created = new ApiVCSClient(workspace, fileManager);
+        //Projects already run side by side, their diffs do not need every core each
+        created.setDiffParallelism(Math.max(1, WorkspaceDiffEngine.DEFAULT_PARALLELISM / parallelism));
+        final ApiVCSClient client = clientConfigurer.apply(created);
+        try {
+            final Tree before = branchTree(apiVCSDirectory, branchInfo.getBranch());
+            final ValueResult<Void> result;
+            if (exists) {
+                //Nobody edits the mirror, anything that differs was left half written by an interrupted run
+                client.revertAll();
+                result = client.pull(provider, MergingStrategy.KEEP_THEIRS, new DefaultMergeListener());
+            } else {
+                workspace.mkdirs();
+                result = client.clone(provider, branchInfo);
+            }
+            if (result.isFailure()) {
+                return MirrorEntry.failed(branchInfo.getProjectId(), branchInfo.getBranch(), result.getMessage().orElse("Unknown error"));
+            }
+            return changes(branchInfo, exists, before, branchTree(apiVCSDirectory, branchInfo.getBranch()));
+        } catch (IOException | RuntimeException e) {
+            return MirrorEntry.failed(branchInfo.getProjectId(), branchInfo.getBranch(), e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    private static MirrorEntry changes(BranchInfo branchInfo, boolean existed, Tree before, Tree after) {
+        int added = 0;
+        int modified = 0;
+        int deleted = 0;
+        for (String path : after.paths()) {
+            final Optional<String> previous = before.get(path);
+            if (!previous.isPresent()) {
+                added++;
+            } else if (!previous.equals(after.get(path))) {
+                modified++;
+            }
+        }
+        for (String path : before.paths()) {
+            if (!after.contains(path)) {
+                deleted++;
+            }
+        }
+        final MirrorEntry.Status status;
+        if (!existed) {
+            status = MirrorEntry.Status.CREATED;
+        } else if (added + modified + deleted == 0) {
+            status = MirrorEntry.Status.UNCHANGED;
+        } else {
+            status = MirrorEntry.Status.UPDATED;
+        }
+        return new MirrorEntry(branchInfo.getProjectId(), branchInfo.getBranch(), status, added, modified, deleted, null);
+    }
+
+    private static Tree branchTree(File apiVCSDirectory, String branch) throws IOException {
+        if (!apiVCSDirectory.isDirectory()) {
+            return Tree.EMPTY;
+        }
+        return new ObjectStore(apiVCSDirectory).branchTree(branch).orElse(Tree.EMPTY);
+    }
+
+    private static File writeManifest(File mirrorDirectory, List<MirrorEntry> entries) throws IOException {
+        final File manifests = new File(mirrorDirectory, MANIFESTS_FOLDER_NAME);
+        manifests.mkdirs();
+        final String runId = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        final File manifestFile = new File(manifests, runId + ".tsv");
+        final List<String> lines = new ArrayList<>();
+        lines.add("# projectId\tbranch\tstatus\tadded\tmodified\tdeleted\tmessage");
+        for (MirrorEntry entry : entries) {
+            lines.add(entry.toLine());
+        }
+        Files.write(manifestFile.toPath(), lines, StandardCharsets.UTF_8);
+        return manifestFile;
+    }
+
+    //Branch names may contain `/` and other characters that are not valid in a file name
+    private static String encode(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    //Every finished branch is flushed right away so a killed run loses at most the branches in progress
+    private static class Journal implements Closeable {
+        private final Writer writer;
+
+        Journal(File file, Collection<MirrorEntry> resumed) throws IOException {
+            this.writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+            for (MirrorEntry entry : resumed) {
+                append(entry);
+            }
+        }
+
+        synchronized void append(MirrorEntry entry) throws IOException {
+            writer.write(entry.toLine());
+            writer.write('\n');
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
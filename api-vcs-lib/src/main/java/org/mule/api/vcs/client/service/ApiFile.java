@@ -1,12 +1,21 @@
 package org.mule.api.vcs.client.service;
 
+import java.util.Optional;
+
 public class ApiFile {
     private String path;
     private ApiFileType fileType;
+    //Opaque token (hash, version or ETag) that changes whenever the remote content changes
+    private String version;
 
     public ApiFile(String path,ApiFileType fileType) {
+        this(path, fileType, null);
+    }
+
+    public ApiFile(String path, ApiFileType fileType, String version) {
         this.path = path;
         this.fileType = fileType;
+        this.version = version;
     }
 
     public String getPath() {
@@ -16,4 +25,8 @@ public class ApiFile {
     public ApiFileType getFileType() {
         return fileType;
     }
+
+    public Optional<String> getVersion() {
+        return Optional.ofNullable(version);
+    }
 }
@@ -3,10 +3,16 @@ package org.mule.api.vcs.client.service;
 public class ApiFileContent {
     private byte[] content;
     private String mimeType;
+    private ApiFileValidators validators;
 
     public ApiFileContent(byte[] content, String mimeType) {
+        this(content, mimeType, ApiFileValidators.NONE);
+    }
+
+    public ApiFileContent(byte[] content, String mimeType, ApiFileValidators validators) {
         this.content = content;
         this.mimeType = mimeType;
+        this.validators = validators;
     }
 
     public byte[] getContent() {
@@ -17,4 +23,8 @@ public class ApiFileContent {
         return mimeType;
     }
 
+    public ApiFileValidators getValidators() {
+        return validators;
+    }
+
 }
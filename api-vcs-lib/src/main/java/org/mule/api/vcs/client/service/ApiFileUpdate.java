@@ -0,0 +1,31 @@
+package org.mule.api.vcs.client.service;
+
+public class ApiFileUpdate {
+    private String path;
+    private byte[] content;
+    private String mimeType;
+    private boolean newFile;
+
+    public ApiFileUpdate(String path, byte[] content, String mimeType, boolean newFile) {
+        this.path = path;
+        this.content = content;
+        this.mimeType = mimeType;
+        this.newFile = newFile;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public boolean isNewFile() {
+        return newFile;
+    }
+}
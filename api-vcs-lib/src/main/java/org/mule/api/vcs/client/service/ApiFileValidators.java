@@ -0,0 +1,29 @@
+package org.mule.api.vcs.client.service;
+
+import java.util.Optional;
+
+//HTTP validators used to ask the server for a file only when it changed
+public class ApiFileValidators {
+
+    public static final ApiFileValidators NONE = new ApiFileValidators(null, null);
+
+    private String etag;
+    private String lastModified;
+
+    public ApiFileValidators(String etag, String lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public Optional<String> getEtag() {
+        return Optional.ofNullable(etag);
+    }
+
+    public Optional<String> getLastModified() {
+        return Optional.ofNullable(lastModified);
+    }
+
+    public boolean isEmpty() {
+        return etag == null && lastModified == null;
+    }
+}
@@ -1,6 +1,7 @@
 package org.mule.api.vcs.client.service;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface BranchRepositoryManager {
     boolean delete(String path);
@@ -9,7 +10,29 @@ public interface BranchRepositoryManager {
 
     boolean updateFile(String path, byte[] content);
 
+    default boolean saveFiles(List<ApiFileUpdate> files) {
+        boolean result = true;
+        for (ApiFileUpdate file : files) {
+            if (file.isNewFile()) {
+                result &= newFile(file.getPath(), file.getContent(), file.getMimeType());
+            } else {
+                result &= updateFile(file.getPath(), file.getContent());
+            }
+        }
+        return result;
+    }
+
     List<ApiFile> listFiles();
 
     ApiFileContent fileContent(String path);
+
+    //Conditional fetch, empty means the content still matches the given validators
+    default Optional<ApiFileContent> fileContentIfModified(String path, ApiFileValidators validators) {
+        return Optional.of(fileContent(path));
+    }
+
+    //False when files can only be saved as text, binary content would be stored corrupted
+    default boolean supportsBinaryContent() {
+        return true;
+    }
 }
@@ -0,0 +1,84 @@
+package org.mule.api.vcs.client.service;
+
+import org.mule.api.vcs.client.store.FileContentCache;
+
+import java.util.List;
+import java.util.Optional;
+
+public class CachingBranchRepositoryManager implements BranchRepositoryManager {
+
+    private BranchRepositoryManager wrapper;
+    private FileContentCache cache;
+    private String branch;
+
+    public CachingBranchRepositoryManager(BranchRepositoryManager wrapper, FileContentCache cache, String branch) {
+        this.wrapper = wrapper;
+        this.cache = cache;
+        this.branch = branch;
+    }
+
+    @Override
+    public boolean delete(String path) {
+        cache.remove(FileContentCache.key(branch, path));
+        return wrapper.delete(path);
+    }
+
+    @Override
+    public boolean newFile(String path, byte[] content, String mimeType) {
+        cache.remove(FileContentCache.key(branch, path));
+        return wrapper.newFile(path, content, mimeType);
+    }
+
+    @Override
+    public boolean updateFile(String path, byte[] content) {
+        cache.remove(FileContentCache.key(branch, path));
+        return wrapper.updateFile(path, content);
+    }
+
+    @Override
+    public boolean saveFiles(List<ApiFileUpdate> files) {
+        for (ApiFileUpdate file : files) {
+            cache.remove(FileContentCache.key(branch, file.getPath()));
+        }
+        return wrapper.saveFiles(files);
+    }
+
+    @Override
+    public List<ApiFile> listFiles() {
+        return wrapper.listFiles();
+    }
+
+    @Override
+    public ApiFileContent fileContent(String path) {
+        final String key = FileContentCache.key(branch, path);
+        final Optional<ApiFileContent> cached = cache.get(key);
+        final ApiFileValidators validators = cached.map(ApiFileContent::getValidators).orElse(ApiFileValidators.NONE);
+        final Optional<ApiFileContent> fetched = wrapper.fileContentIfModified(path, validators);
+        if (fetched.isPresent()) {
+            cache.recordMiss();
+            cache.put(key, fetched.get());
+            return fetched.get();
+        } else if (cached.isPresent()) {
+            cache.recordHit();
+            return cached.get();
+        } else {
+            //Server answered not modified to an unconditional request
+            cache.recordMiss();
+            return wrapper.fileContent(path);
+        }
+    }
+
+    @Override
+    public Optional<ApiFileContent> fileContentIfModified(String path, ApiFileValidators validators) {
+        return wrapper.fileContentIfModified(path, validators);
+    }
+
+    public FileContentCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public boolean supportsBinaryContent() {
+        return wrapper.supportsBinaryContent();
+    }
+}
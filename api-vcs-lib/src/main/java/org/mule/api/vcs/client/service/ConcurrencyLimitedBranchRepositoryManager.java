@@ -0,0 +1,59 @@
+package org.mule.api.vcs.client.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+import static org.mule.api.vcs.client.service.ConcurrencyLimitedRepositoryFileManager.limited;
+
+class ConcurrencyLimitedBranchRepositoryManager implements BranchRepositoryManager {
+
+    private BranchRepositoryManager wrapper;
+    private Semaphore permits;
+
+    ConcurrencyLimitedBranchRepositoryManager(BranchRepositoryManager wrapper, Semaphore permits) {
+        this.wrapper = wrapper;
+        this.permits = permits;
+    }
+
+    @Override
+    public boolean delete(String path) {
+        return limited(permits, () -> wrapper.delete(path));
+    }
+
+    @Override
+    public boolean newFile(String path, byte[] content, String mimeType) {
+        return limited(permits, () -> wrapper.newFile(path, content, mimeType));
+    }
+
+    @Override
+    public boolean updateFile(String path, byte[] content) {
+        return limited(permits, () -> wrapper.updateFile(path, content));
+    }
+
+    //One batched request, not one per file
+    @Override
+    public boolean saveFiles(List<ApiFileUpdate> files) {
+        return limited(permits, () -> wrapper.saveFiles(files));
+    }
+
+    @Override
+    public List<ApiFile> listFiles() {
+        return limited(permits, () -> wrapper.listFiles());
+    }
+
+    @Override
+    public ApiFileContent fileContent(String path) {
+        return limited(permits, () -> wrapper.fileContent(path));
+    }
+
+    @Override
+    public Optional<ApiFileContent> fileContentIfModified(String path, ApiFileValidators validators) {
+        return limited(permits, () -> wrapper.fileContentIfModified(path, validators));
+    }
+
+    @Override
+    public boolean supportsBinaryContent() {
+        return wrapper.supportsBinaryContent();
+    }
+}
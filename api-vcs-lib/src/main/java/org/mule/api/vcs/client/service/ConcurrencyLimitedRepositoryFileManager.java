@@ -0,0 +1,77 @@
+package org.mule.api.vcs.client.service;
+
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.PublishInfo;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+//Bounds the requests in flight against the remote service, shared by every client that syncs at the same time
+public class ConcurrencyLimitedRepositoryFileManager implements RepositoryFileManager {
+
+    private RepositoryFileManager wrapper;
+    private Semaphore permits;
+
+    public ConcurrencyLimitedRepositoryFileManager(RepositoryFileManager wrapper, int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("Max concurrent requests must be at least 1 but was " + maxConcurrentRequests);
+        }
+        this.wrapper = wrapper;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    @Override
+    public BranchRepositoryLock acquireLock(UserInfoProvider provider, String projectId, String branchName) {
+        final BranchRepositoryLock lock = limited(permits, () -> wrapper.acquireLock(provider, projectId, branchName));
+        if (lock.getBranchRepositoryManager() == null) {
+            return lock;
+        }
+        return new BranchRepositoryLock(lock.isSuccess(), lock.getOwner(), new ConcurrencyLimitedBranchRepositoryManager(lock.getBranchRepositoryManager(), permits));
+    }
+
+    @Override
+    public void releaseLock(UserInfoProvider provider, String projectId, String branchName) {
+        limited(permits, () -> {
+            wrapper.releaseLock(provider, projectId, branchName);
+            return null;
+        });
+    }
+
+    @Override
+    public List<ApiBranch> branches(UserInfoProvider provider, String projectId) {
+        return limited(permits, () -> wrapper.branches(provider, projectId));
+    }
+
+    @Override
+    public List<ProjectInfo> projects(UserInfoProvider provider) {
+        return limited(permits, () -> wrapper.projects(provider));
+    }
+
+    @Override
+    public BranchInfo create(UserInfoProvider provider, ApiType apiType, String name, String description) {
+        return limited(permits, () -> wrapper.create(provider, apiType, name, description));
+    }
+
+    @Override
+    public void publish(UserInfoProvider provider, PublishInfo publishInfo) {
+        limited(permits, () -> {
+            wrapper.publish(provider, publishInfo);
+            return null;
+        });
+    }
+
+    static <T> T limited(Semaphore permits, Supplier<T> call) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to call the remote service", e);
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
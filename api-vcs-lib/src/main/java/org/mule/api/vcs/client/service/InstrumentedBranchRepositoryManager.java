@@ -0,0 +1,75 @@
+package org.mule.api.vcs.client.service;
+
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+
+import java.util.List;
+import java.util.Optional;
+
+//Records latency, errors, status codes and payload sizes of every branch endpoint
+public class InstrumentedBranchRepositoryManager implements BranchRepositoryManager {
+
+    private BranchRepositoryManager wrapper;
+    private RemoteCallRecorder recorder;
+
+    public InstrumentedBranchRepositoryManager(BranchRepositoryManager wrapper, MetricsRegistry metrics) {
+        this(wrapper, new RemoteCallRecorder(metrics));
+    }
+
+    InstrumentedBranchRepositoryManager(BranchRepositoryManager wrapper, RemoteCallRecorder recorder) {
+        this.wrapper = wrapper;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public boolean delete(String path) {
+        return recorder.call("delete", () -> wrapper.delete(path));
+    }
+
+    @Override
+    public boolean newFile(String path, byte[] content, String mimeType) {
+        recorder.bytes("newFile", content.length);
+        return recorder.call("newFile", () -> wrapper.newFile(path, content, mimeType));
+    }
+
+    @Override
+    public boolean updateFile(String path, byte[] content) {
+        recorder.bytes("updateFile", content.length);
+        return recorder.call("updateFile", () -> wrapper.updateFile(path, content));
+    }
+
+    @Override
+    public boolean saveFiles(List<ApiFileUpdate> files) {
+        recorder.bytes("saveFiles", files.stream().mapToLong((file) -> file.getContent().length).sum());
+        return recorder.call("saveFiles", () -> wrapper.saveFiles(files));
+    }
+
+    @Override
+    public List<ApiFile> listFiles() {
+        final List<ApiFile> files = recorder.call("listFiles", () -> wrapper.listFiles());
+        recorder.items("listFiles", files.size());
+        return files;
+    }
+
+    @Override
+    public ApiFileContent fileContent(String path) {
+        final ApiFileContent content = recorder.call("fileContent", () -> wrapper.fileContent(path));
+        recorder.bytes("fileContent", content.getContent().length);
+        return content;
+    }
+
+    @Override
+    public Optional<ApiFileContent> fileContentIfModified(String path, ApiFileValidators validators) {
+        final Optional<ApiFileContent> content = recorder.call("fileContentIfModified", () -> wrapper.fileContentIfModified(path, validators));
+        if (content.isPresent()) {
+            recorder.bytes("fileContentIfModified", content.get().getContent().length);
+        } else {
+            recorder.count("fileContentIfModified.notModified");
+        }
+        return content;
+    }
+
+    @Override
+    public boolean supportsBinaryContent() {
+        return wrapper.supportsBinaryContent();
+    }
+}
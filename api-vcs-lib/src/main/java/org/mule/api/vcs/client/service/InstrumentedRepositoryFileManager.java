@@ -0,0 +1,56 @@
+package org.mule.api.vcs.client.service;
+
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.PublishInfo;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+
+import java.util.List;
+
+//Records latency, errors and status codes per endpoint, branch managers handed out by locks are instrumented too
+public class InstrumentedRepositoryFileManager implements RepositoryFileManager {
+
+    private RepositoryFileManager wrapper;
+    private RemoteCallRecorder recorder;
+
+    public InstrumentedRepositoryFileManager(RepositoryFileManager wrapper, MetricsRegistry metrics) {
+        this.wrapper = wrapper;
+        this.recorder = new RemoteCallRecorder(metrics);
+    }
+
+    @Override
+    public BranchRepositoryLock acquireLock(UserInfoProvider provider, String projectId, String branchName) {
+        final BranchRepositoryLock lock = recorder.call("acquireLock", () -> wrapper.acquireLock(provider, projectId, branchName));
+        if (!lock.isSuccess()) {
+            recorder.count("acquireLock.denied");
+        }
+        if (lock.getBranchRepositoryManager() == null) {
+            return lock;
+        }
+        return new BranchRepositoryLock(lock.isSuccess(), lock.getOwner(), new InstrumentedBranchRepositoryManager(lock.getBranchRepositoryManager(), recorder));
+    }
+
+    @Override
+    public void releaseLock(UserInfoProvider provider, String projectId, String branchName) {
+        recorder.run("releaseLock", () -> wrapper.releaseLock(provider, projectId, branchName));
+    }
+
+    @Override
+    public List<ApiBranch> branches(UserInfoProvider provider, String projectId) {
+        return recorder.call("branches", () -> wrapper.branches(provider, projectId));
+    }
+
+    @Override
+    public List<ProjectInfo> projects(UserInfoProvider provider) {
+        return recorder.call("projects", () -> wrapper.projects(provider));
+    }
+
+    @Override
+    public BranchInfo create(UserInfoProvider provider, ApiType apiType, String name, String description) {
+        return recorder.call("create", () -> wrapper.create(provider, apiType, name, description));
+    }
+
+    @Override
+    public void publish(UserInfoProvider provider, PublishInfo publishInfo) {
+        recorder.run("publish", () -> wrapper.publish(provider, publishInfo));
+    }
+}
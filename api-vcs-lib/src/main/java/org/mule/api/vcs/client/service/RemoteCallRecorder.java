@@ -0,0 +1,65 @@
+package org.mule.api.vcs.client.service;
+
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+import org.mule.apidesigner.exceptions.ApiDesignerXapiException;
+
+import java.util.function.Supplier;
+
+import static org.mule.api.vcs.client.metrics.ApiVCSMetrics.*;
+
+//Latency, errors and status codes of every call made through the instrumented decorators
+class RemoteCallRecorder {
+
+    private final MetricsRegistry metrics;
+
+    RemoteCallRecorder(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    <T> T call(String operation, Supplier<T> call) {
+        final long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            metrics.counter(endpointErrors(operation)).increment();
+            final ApiDesignerXapiException apiException = findApiException(e);
+            if (apiException != null) {
+                metrics.counter(endpointStatus(operation, apiException.getStatusCode())).increment();
+            }
+            throw e;
+        } finally {
+            metrics.timer(endpoint(operation)).recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    void run(String operation, Runnable call) {
+        call(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    void bytes(String operation, long bytes) {
+        metrics.histogram(endpointBytes(operation)).record(bytes);
+    }
+
+    void items(String operation, long items) {
+        metrics.histogram(endpoint(operation) + ".items").record(items);
+    }
+
+    void count(String name) {
+        metrics.counter(endpoint(name)).increment();
+    }
+
+    //Some managers wrap the client exception to add context
+    private static ApiDesignerXapiException findApiException(Throwable e) {
+        Throwable current = e;
+        while (current != null) {
+            if (current instanceof ApiDesignerXapiException) {
+                return (ApiDesignerXapiException) current;
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package org.mule.api.vcs.client.service;
+
+//A remote failure that may not happen again, the call can be retried
+public class TransientRemoteException extends RuntimeException {
+
+    public TransientRemoteException(String message) {
+        super(message);
+    }
+
+    public TransientRemoteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
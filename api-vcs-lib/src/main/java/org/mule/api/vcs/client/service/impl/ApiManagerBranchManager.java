@@ -1,6 +1,7 @@
 package org.mule.api.vcs.client.service.impl;
 
 import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.diff.FileUtils;
 import org.mule.api.vcs.client.service.*;
 import org.mule.apidesigner.model.File;
 import org.mule.apidesigner.model.FileContent;
@@ -11,9 +12,14 @@ import org.mule.apidesigner.resource.projects.projectId.branches.branch.files.mo
 import org.mule.apidesigner.resource.projects.projectId.branches.branch.save.model.SavePOSTHeader;
 import org.mule.apidesigner.responses.ApiDesignerXapiResponse;
 
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
+import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class ApiManagerBranchManager implements BranchRepositoryManager {
@@ -39,10 +45,41 @@ public class ApiManagerBranchManager implements BranchRepositoryManager {
     }
 
     private boolean doSave(String path, byte[] content) {
-        final String fileContent = new String(content, BranchInfo.DEFAULT_CHARSET);
-        final List<FileContent> fileContents = Collections.singletonList(new FileContent(path, fileContent));
+        return doSave(Collections.singletonList(new FileContent(path, textContent(path, content))));
+    }
+
+    //The save endpoint only takes text, sending binary content through it would store a corrupted copy
+    private static String textContent(String path, byte[] content) {
+        if (FileUtils.isBinary(content)) {
+            throw new IllegalArgumentException("`" + path + "` is binary and API Designer can only save text files.");
+        }
+        return new String(content, BranchInfo.DEFAULT_CHARSET);
+    }
+
+    private boolean doSave(List<FileContent> fileContents) {
         final ApiDesignerXapiResponse<List<File>> post = branch.save.post(fileContents, new SavePOSTHeader(provider.getOrgId(), provider.getUserId()), provider.getAccessToken());
-        return true;
+        //The service answers with the files it saved, a file missing from the answer was not
+        final List<File> savedFiles = post.getBody() != null ? post.getBody() : Collections.emptyList();
+        final Set<String> saved = savedFiles.stream()
+                .map((file) -> normalizedPath(file.getPath()))
+                .collect(Collectors.toSet());
+        return fileContents.stream().allMatch((fileContent) -> saved.contains(normalizedPath(fileContent.getPath())));
+    }
+
+    private static String normalizedPath(String path) {
+        String result = path;
+        while (result.startsWith("./") || result.startsWith("/")) {
+            result = result.substring(result.indexOf('/') + 1);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean saveFiles(List<ApiFileUpdate> files) {
+        final List<FileContent> fileContents = files.stream()
+                .map((file) -> new FileContent(file.getPath(), textContent(file.getPath(), file.getContent())))
+                .collect(Collectors.toList());
+        return doSave(fileContents);
     }
 
     @Override
@@ -50,6 +87,11 @@ public class ApiManagerBranchManager implements BranchRepositoryManager {
         return doSave(path, content);
     }
 
+    @Override
+    public boolean supportsBinaryContent() {
+        return false;
+    }
+
     @Override
     public List<ApiFile> listFiles() {
         final List<File> fileList = branch.files.get(new FilesGETHeader(provider.getOrgId(), provider.getUserId()), provider.getAccessToken()).getBody();
@@ -63,6 +105,11 @@ public class ApiManagerBranchManager implements BranchRepositoryManager {
     public ApiFileContent fileContent(String path) {
         final ApiDesignerXapiResponse<String> stringApiDesignerXapiResponse = branch.files.filePath(path).get(new FilePathGETHeader(provider.getOrgId(), provider.getUserId()), provider.getAccessToken());
         final String body = stringApiDesignerXapiResponse.getBody();
-        return new ApiFileContent(body.getBytes(BranchInfo.DEFAULT_CHARSET), stringApiDesignerXapiResponse.getResponse().getMediaType().toString());
+        final Response response = stringApiDesignerXapiResponse.getResponse();
+        final ApiFileValidators validators = new ApiFileValidators(response.getHeaderString(HttpHeaders.ETAG), response.getHeaderString(HttpHeaders.LAST_MODIFIED));
+        final MediaType mediaType = response.getMediaType();
+        //HttpTransport decoded non text bodies byte for byte
+        final Charset charset = FileUtils.isTextMimeType(mediaType.getType() + "/" + mediaType.getSubtype()) ? BranchInfo.DEFAULT_CHARSET : HttpTransport.BINARY_CHARSET;
+        return new ApiFileContent(body.getBytes(charset), mediaType.toString(), validators);
     }
 }
@@ -27,11 +27,19 @@ public class ApiRepositoryFileManager implements RepositoryFileManager {
     private ApiDesignerXapiClient client;
 
     public ApiRepositoryFileManager() {
-        this.client = ApiDesignerXapiClient.create();
+        this(HttpTransport.shared());
     }
 
     public ApiRepositoryFileManager(String url) {
-        client = ApiDesignerXapiClient.create(url);
+        this(HttpTransport.shared(), url);
+    }
+
+    public ApiRepositoryFileManager(HttpTransport transport) {
+        this.client = transport.apiDesignerClient();
+    }
+
+    public ApiRepositoryFileManager(HttpTransport transport, String url) {
+        this.client = transport.apiDesignerClient(url);
     }
 
 
@@ -47,7 +55,7 @@ public class ApiRepositoryFileManager implements RepositoryFileManager {
             final ApiManagerBranchManager branchManager = new ApiManagerBranchManager(provider, branch);
             return new BranchRepositoryLock(locked, post.getBody().getName(), branchManager);
         } catch (ApiDesignerXapiException e) {
-            throw new RuntimeException(e.getReason());
+            throw new RuntimeException(e.getReason(), e);
         }
     }
 
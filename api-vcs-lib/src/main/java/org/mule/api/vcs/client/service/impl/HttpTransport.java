@@ -0,0 +1,138 @@
+package org.mule.api.vcs.client.service.impl;
+
+import org.mule.api.vcs.client.diff.FileUtils;
+import org.mule.apidesigner.api.ApiDesignerXapiClient;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ReaderInterceptor;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+//One JAX-RS client shared by every generated API client so requests reuse kept alive (and TLS) connections.
+//Pooling is left to the JDK keep alive cache, its size is the embedding application's `http.maxConnections`
+public class HttpTransport {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 60 * 1000;
+
+    //System properties overriding the defaults of the shared transport
+    public static final String CONNECT_TIMEOUT_MILLIS_PROPERTY = "apivcs.http.connectTimeout";
+    public static final String READ_TIMEOUT_MILLIS_PROPERTY = "apivcs.http.readTimeout";
+    public static final String GZIP_PROPERTY = "apivcs.http.gzip";
+
+    //Client properties understood by Jersey, other implementations ignore them
+    private static final String CONNECT_TIMEOUT_PROPERTY = "jersey.config.client.connectTimeout";
+    private static final String READ_TIMEOUT_PROPERTY = "jersey.config.client.readTimeout";
+    private static final String GZIP = "gzip";
+    //Maps every byte to the char with the same value, so a String body can be turned back into the exact bytes
+    public static final Charset BINARY_CHARSET = StandardCharsets.ISO_8859_1;
+
+    private static HttpTransport shared;
+
+    private final Client client;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final boolean gzip;
+
+    public HttpTransport(int connectTimeoutMillis, int readTimeoutMillis, boolean gzip) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.gzip = gzip;
+        final ClientBuilder builder = ClientBuilder.newBuilder()
+                .property(CONNECT_TIMEOUT_PROPERTY, connectTimeoutMillis)
+                .property(READ_TIMEOUT_PROPERTY, readTimeoutMillis)
+                .register(binaryAsLatin1());
+        if (gzip) {
+            builder.register(acceptGzip());
+            builder.register(gunzip());
+        }
+        this.client = builder.build();
+    }
+
+    public static synchronized HttpTransport shared() {
+        if (shared == null) {
+            shared = new HttpTransport(
+                    Integer.getInteger(CONNECT_TIMEOUT_MILLIS_PROPERTY, DEFAULT_CONNECT_TIMEOUT_MILLIS),
+                    Integer.getInteger(READ_TIMEOUT_MILLIS_PROPERTY, DEFAULT_READ_TIMEOUT_MILLIS),
+                    Boolean.getBoolean(GZIP_PROPERTY));
+        }
+        return shared;
+    }
+
+    //Embedders configure the transport before creating clients, clients created before keep the previous one
+    public static synchronized void setShared(HttpTransport transport) {
+        shared = transport;
+    }
+
+    public ApiDesignerXapiClient apiDesignerClient() {
+        return new ApiDesignerXapiClient() {
+            @Override
+            protected Client getClient() {
+                return client;
+            }
+        };
+    }
+
+    public ApiDesignerXapiClient apiDesignerClient(String url) {
+        return new ApiDesignerXapiClient(url) {
+            @Override
+            protected Client getClient() {
+                return client;
+            }
+        };
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public void close() {
+        client.close();
+    }
+
+    private static ClientRequestFilter acceptGzip() {
+        return (requestContext) -> requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, GZIP);
+    }
+
+    //The generated clients read every file as a String, which would decode images and archives as UTF-8 and replace
+    //whatever is not valid UTF-8. Decoding non text bodies as ISO-8859-1 keeps every byte
+    private static ReaderInterceptor binaryAsLatin1() {
+        return (context) -> {
+            final MediaType mediaType = context.getMediaType();
+            if (context.getType() == String.class && mediaType != null && !FileUtils.isTextMimeType(mediaType.getType() + "/" + mediaType.getSubtype())) {
+                context.setMediaType(mediaType.withCharset(BINARY_CHARSET.name()));
+            }
+            return context.proceed();
+        };
+    }
+
+    //HttpURLConnection does not decompress by itself
+    private static ReaderInterceptor gunzip() {
+        return (context) -> {
+            final List<String> encoding = context.getHeaders().get(HttpHeaders.CONTENT_ENCODING);
+            if (encoding != null && encoding.contains(GZIP)) {
+                context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+                context.setInputStream(new GZIPInputStream(context.getInputStream()));
+            }
+            return context.proceed();
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package org.mule.api.vcs.client.service.resilience;
+
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String operation) {
+        super("Not calling " + operation + ", the remote service has been failing. Try again later.");
+    }
+}
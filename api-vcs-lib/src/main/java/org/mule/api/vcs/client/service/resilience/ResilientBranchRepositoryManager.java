@@ -0,0 +1,59 @@
+package org.mule.api.vcs.client.service.resilience;
+
+import org.mule.api.vcs.client.service.*;
+
+import java.util.List;
+import java.util.Optional;
+
+class ResilientBranchRepositoryManager implements BranchRepositoryManager {
+
+    private BranchRepositoryManager wrapper;
+    private ResilientCalls calls;
+
+    ResilientBranchRepositoryManager(BranchRepositoryManager wrapper, ResilientCalls calls) {
+        this.wrapper = wrapper;
+        this.calls = calls;
+    }
+
+    @Override
+    public boolean delete(String path) {
+        //A retried delete of a file that is already gone reports a failure
+        return calls.call("delete", false, () -> wrapper.delete(path));
+    }
+
+    @Override
+    public boolean newFile(String path, byte[] content, String mimeType) {
+        return calls.call("newFile", false, () -> wrapper.newFile(path, content, mimeType));
+    }
+
+    //Updates carry the whole content so writing them twice leaves the same result
+    @Override
+    public boolean updateFile(String path, byte[] content) {
+        return calls.call("updateFile", true, () -> wrapper.updateFile(path, content));
+    }
+
+    @Override
+    public boolean saveFiles(List<ApiFileUpdate> files) {
+        return calls.call("saveFiles", true, () -> wrapper.saveFiles(files));
+    }
+
+    @Override
+    public List<ApiFile> listFiles() {
+        return calls.call("listFiles", true, () -> wrapper.listFiles());
+    }
+
+    @Override
+    public ApiFileContent fileContent(String path) {
+        return calls.call("fileContent", true, () -> wrapper.fileContent(path));
+    }
+
+    @Override
+    public Optional<ApiFileContent> fileContentIfModified(String path, ApiFileValidators validators) {
+        return calls.call("fileContentIfModified", true, () -> wrapper.fileContentIfModified(path, validators));
+    }
+
+    @Override
+    public boolean supportsBinaryContent() {
+        return wrapper.supportsBinaryContent();
+    }
+}
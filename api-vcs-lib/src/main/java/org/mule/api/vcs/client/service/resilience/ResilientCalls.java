@@ -0,0 +1,77 @@
+package org.mule.api.vcs.client.service.resilience;
+
+import org.mule.api.vcs.client.metrics.ApiVCSMetrics;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+
+import java.util.function.Supplier;
+
+class ResilientCalls {
+
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final MetricsRegistry metrics;
+
+    ResilientCalls(RetryPolicy retryPolicy, CircuitBreaker circuitBreaker, MetricsRegistry metrics) {
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.metrics = metrics;
+    }
+
+    //Only idempotent calls are retried, any call fails fast while the circuit is open
+    <T> T call(String operation, boolean idempotent, Supplier<T> call) {
+        return call(operation, idempotent, true, call);
+    }
+
+    //Retried like any other call but never stopped by, nor counted in, the circuit. For cleanup that has to be
+    //attempted even while the service looks down, like releasing a lock
+    void runOutsideCircuit(String operation, Runnable call) {
+        call(operation, true, false, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private <T> T call(String operation, boolean idempotent, boolean guarded, Supplier<T> call) {
+        retryPolicy.getRetryBudget().onCall();
+        int attempt = 1;
+        while (true) {
+            if (guarded && !circuitBreaker.tryAcquire()) {
+                metrics.counter(ApiVCSMetrics.CIRCUIT_OPEN).increment();
+                throw new CircuitOpenException(operation);
+            }
+            try {
+                final T result = call.get();
+                if (guarded) {
+                    circuitBreaker.onSuccess();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                final boolean transientFailure = retryPolicy.isRetryable(e);
+                if (guarded && transientFailure) {
+                    circuitBreaker.onFailure();
+                } else if (guarded) {
+                    //The service answered, it is up
+                    circuitBreaker.onSuccess();
+                }
+                if (!transientFailure || !idempotent || attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.getRetryBudget().tryRetry()) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(retryPolicy.backoffMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                metrics.counter(ApiVCSMetrics.RETRIES).increment();
+                attempt++;
+            }
+        }
+    }
+
+    void run(String operation, boolean idempotent, Runnable call) {
+        call(operation, idempotent, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
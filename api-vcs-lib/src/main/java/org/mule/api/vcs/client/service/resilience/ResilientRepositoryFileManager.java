@@ -0,0 +1,61 @@
+package org.mule.api.vcs.client.service.resilience;
+
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.PublishInfo;
+import org.mule.api.vcs.client.metrics.MetricsRegistry;
+import org.mule.api.vcs.client.service.*;
+
+import java.util.List;
+
+//Retries transient failures of idempotent calls and stops calling a service that is down
+public class ResilientRepositoryFileManager implements RepositoryFileManager {
+
+    private RepositoryFileManager wrapper;
+    private ResilientCalls calls;
+
+    public ResilientRepositoryFileManager(RepositoryFileManager wrapper, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker) {
+        this(wrapper, retryPolicy, circuitBreaker, MetricsRegistry.NOOP);
+    }
+
+    public ResilientRepositoryFileManager(RepositoryFileManager wrapper, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker, MetricsRegistry metrics) {
+        this.wrapper = wrapper;
+        this.calls = new ResilientCalls(retryPolicy, circuitBreaker, metrics);
+    }
+
+    @Override
+    public BranchRepositoryLock acquireLock(UserInfoProvider provider, String projectId, String branchName) {
+        //Acquiring a lock we already own succeeds again
+        final BranchRepositoryLock lock = calls.call("acquireLock", true, () -> wrapper.acquireLock(provider, projectId, branchName));
+        if (lock.getBranchRepositoryManager() == null) {
+            return lock;
+        }
+        return new BranchRepositoryLock(lock.isSuccess(), lock.getOwner(), new ResilientBranchRepositoryManager(lock.getBranchRepositoryManager(), calls));
+    }
+
+    @Override
+    public void releaseLock(UserInfoProvider provider, String projectId, String branchName) {
+        //Rejecting it would leave the branch locked upstream until the stale lease sweep
+        calls.runOutsideCircuit("releaseLock", () -> wrapper.releaseLock(provider, projectId, branchName));
+    }
+
+    @Override
+    public List<ApiBranch> branches(UserInfoProvider provider, String projectId) {
+        return calls.call("branches", true, () -> wrapper.branches(provider, projectId));
+    }
+
+    @Override
+    public List<ProjectInfo> projects(UserInfoProvider provider) {
+        return calls.call("projects", true, () -> wrapper.projects(provider));
+    }
+
+    @Override
+    public BranchInfo create(UserInfoProvider provider, ApiType apiType, String name, String description) {
+        //A retry could create the project twice
+        return calls.call("create", false, () -> wrapper.create(provider, apiType, name, description));
+    }
+
+    @Override
+    public void publish(UserInfoProvider provider, PublishInfo publishInfo) {
+        calls.run("publish", false, () -> wrapper.publish(provider, publishInfo));
+    }
+}
@@ -0,0 +1,40 @@
+package org.mule.api.vcs.client.service.resilience;
+
+//Caps retries to a fraction of the calls so an outage is not amplified by every call retrying:
+//up to `reserve` retries in a burst, refilled by `ratio` for every call made
+public class RetryBudget {
+
+    public static final double DEFAULT_RATIO = 0.2;
+    public static final int DEFAULT_RESERVE = 10;
+
+    private final double ratio;
+    private final int reserve;
+    private double tokens;
+
+    public RetryBudget(double ratio, int reserve) {
+        this.ratio = ratio;
+        this.reserve = reserve;
+        this.tokens = reserve;
+    }
+
+    public static RetryBudget unlimited() {
+        return new RetryBudget(0, Integer.MAX_VALUE) {
+            @Override
+            public synchronized boolean tryRetry() {
+                return true;
+            }
+        };
+    }
+
+    public synchronized void onCall() {
+        tokens = Math.min(reserve, tokens + ratio);
+    }
+
+    public synchronized boolean tryRetry() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package org.mule.api.vcs.client.service.resilience;
+
+import org.mule.api.vcs.client.service.TransientRemoteException;
+import org.mule.apidesigner.exceptions.ApiDesignerXapiException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 200;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 10 * 1000;
+    public static final double DEFAULT_BACKOFF_MULTIPLIER = 2;
+
+    private static final Set<Integer> TRANSIENT_STATUS_CODES = new HashSet<>(Arrays.asList(408, 429, 500, 502, 503, 504));
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+    private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private double backoffMultiplier = DEFAULT_BACKOFF_MULTIPLIER;
+    private RetryBudget retryBudget = new RetryBudget(RetryBudget.DEFAULT_RATIO, RetryBudget.DEFAULT_RESERVE);
+    private Predicate<Throwable> retryOn = RetryPolicy::isTransient;
+
+    public static RetryPolicy noRetries() {
+        final RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setMaxAttempts(1);
+        return retryPolicy;
+    }
+
+    //Total number of tries, including the first one
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1 but was " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void setBackoff(long initialBackoffMillis, long maxBackoffMillis, double backoffMultiplier) {
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    public void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    public void setRetryOn(Predicate<Throwable> retryOn) {
+        this.retryOn = retryOn;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public boolean isRetryable(Throwable failure) {
+        return retryOn.test(failure);
+    }
+
+    //Full jitter: a random wait up to the exponential backoff so clients that failed together do not retry together
+    public long backoffMillis(int attempt) {
+        final double exponential = initialBackoffMillis * Math.pow(backoffMultiplier, attempt - 1);
+        final long ceiling = (long) Math.min(maxBackoffMillis, exponential);
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    //Timeouts, throttling, server errors and connection problems
+    public static boolean isTransient(Throwable failure) {
+        for (Throwable current = failure; current != null; current = current.getCause()) {
+            if (current instanceof TransientRemoteException || current instanceof IOException) {
+                return true;
+            }
+            if (current instanceof ApiDesignerXapiException) {
+                return TRANSIENT_STATUS_CODES.contains(((ApiDesignerXapiException) current).getStatusCode());
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package org.mule.api.vcs.client.service.simulation;
+
+import java.util.Random;
+
+public interface LatencyDistribution {
+
+    LatencyDistribution NONE = (random) -> 0;
+
+    long nextMillis(Random random);
+
+    static LatencyDistribution fixed(long millis) {
+        return (random) -> millis;
+    }
+
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        return (random) -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    //Long tailed, most calls take around the median but some take many times longer
+    static LatencyDistribution logNormal(long medianMillis, double sigma) {
+        return (random) -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+}
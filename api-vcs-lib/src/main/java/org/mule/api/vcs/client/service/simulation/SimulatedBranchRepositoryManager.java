@@ -0,0 +1,122 @@
+package org.mule.api.vcs.client.service.simulation;
+
+import org.mule.api.vcs.client.diff.FileUtils;
+import org.mule.api.vcs.client.service.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+class SimulatedBranchRepositoryManager implements BranchRepositoryManager {
+
+    private static final String DEFAULT_MIME_TYPE = "text/plain";
+
+    private final SimulatedRepositoryFileManager fileManager;
+    private final File branchDirectory;
+
+    SimulatedBranchRepositoryManager(SimulatedRepositoryFileManager fileManager, File branchDirectory) {
+        this.fileManager = fileManager;
+        this.branchDirectory = branchDirectory;
+    }
+
+    @Override
+    public boolean delete(String path) {
+        fileManager.call(SimulatedOperation.DELETE);
+        return new File(branchDirectory, path).delete();
+    }
+
+    @Override
+    public boolean newFile(String path, byte[] content, String mimeType) {
+        fileManager.call(SimulatedOperation.SAVE);
+        return write(path, content);
+    }
+
+    @Override
+    public boolean updateFile(String path, byte[] content) {
+        fileManager.call(SimulatedOperation.SAVE);
+        return write(path, content);
+    }
+
+    @Override
+    public boolean saveFiles(List<ApiFileUpdate> files) {
+        //One request for the whole batch, like the save endpoint
+        fileManager.call(SimulatedOperation.SAVE);
+        boolean result = true;
+        for (ApiFileUpdate file : files) {
+            result &= write(file.getPath(), file.getContent());
+        }
+        return result;
+    }
+
+    @Override
+    public List<ApiFile> listFiles() {
+        fileManager.call(SimulatedOperation.LIST_FILES);
+        final Path root = branchDirectory.toPath();
+        return SimulatedRepositoryFileManager.listFiles(branchDirectory).stream()
+                .map((file) -> new ApiFile(root.relativize(file).toString().replace(File.separatorChar, '/'), ApiFileType.FILE, fileManager.isExposeVersions() ? etag(read(file)) : null))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ApiFileContent fileContent(String path) {
+        fileManager.call(SimulatedOperation.FILE_CONTENT);
+        return content(path);
+    }
+
+    @Override
+    public Optional<ApiFileContent> fileContentIfModified(String path, ApiFileValidators validators) {
+        fileManager.call(SimulatedOperation.FILE_CONTENT);
+        final ApiFileContent content = content(path);
+        if (validators.getEtag().isPresent() && validators.getEtag().equals(content.getValidators().getEtag())) {
+            return Optional.empty();
+        }
+        return Optional.of(content);
+    }
+
+    private ApiFileContent content(String path) {
+        final Path file = new File(branchDirectory, path).toPath();
+        final byte[] bytes = read(file);
+        String mimeType;
+        try {
+            mimeType = Optional.ofNullable(Files.probeContentType(file)).orElse(DEFAULT_MIME_TYPE);
+        } catch (IOException e) {
+            mimeType = DEFAULT_MIME_TYPE;
+        }
+        return new ApiFileContent(bytes, mimeType, new ApiFileValidators(etag(bytes), null));
+    }
+
+    @Override
+    public boolean supportsBinaryContent() {
+        return !fileManager.isTextOnly();
+    }
+
+    private boolean write(String path, byte[] content) {
+        if (fileManager.isTextOnly() && FileUtils.isBinary(content)) {
+            throw new IllegalArgumentException("`" + path + "` is binary and only text files can be saved.");
+        }
+        final File file = new File(branchDirectory, path);
+        file.getParentFile().mkdirs();
+        try {
+            Files.write(file.toPath(), content);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static byte[] read(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String etag(byte[] content) {
+        return "\"" + FileUtils.contentHash(content) + "\"";
+    }
+}
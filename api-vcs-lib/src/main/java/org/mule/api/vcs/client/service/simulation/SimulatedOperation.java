@@ -0,0 +1,7 @@
+package org.mule.api.vcs.client.service.simulation;
+
+public enum SimulatedOperation {
+
+    ACQUIRE_LOCK, RELEASE_LOCK, BRANCHES, PROJECTS, CREATE, PUBLISH, LIST_FILES, FILE_CONTENT, SAVE, DELETE
+
+}
@@ -0,0 +1,17 @@
+package org.mule.api.vcs.client.service.simulation;
+
+import org.mule.api.vcs.client.service.TransientRemoteException;
+
+public class SimulatedRemoteException extends TransientRemoteException {
+
+    private final SimulatedOperation operation;
+
+    public SimulatedRemoteException(SimulatedOperation operation) {
+        super("Simulated failure while calling " + operation + ".");
+        this.operation = operation;
+    }
+
+    public SimulatedOperation getOperation() {
+        return operation;
+    }
+}
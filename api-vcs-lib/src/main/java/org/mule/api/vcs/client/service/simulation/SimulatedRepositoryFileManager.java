@@ -0,0 +1,221 @@
+package org.mule.api.vcs.client.service.simulation;
+
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.PublishInfo;
+import org.mule.api.vcs.client.service.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+//Serves projects from `directory/<projectId>/<branch>` behaving like a slow and flaky API Designer
+public class SimulatedRepositoryFileManager implements RepositoryFileManager {
+
+    private final File directory;
+    private final Random random;
+    private final Map<SimulatedOperation, LatencyDistribution> latencies = new ConcurrentHashMap<>();
+    private final Map<SimulatedOperation, Double> errorRates = new ConcurrentHashMap<>();
+    private final Map<SimulatedOperation, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final Map<SimulatedOperation, AtomicLong> failures = new ConcurrentHashMap<>();
+    private final Map<String, String> lockOwners = new HashMap<>();
+    private final AtomicLong remoteEdits = new AtomicLong();
+    private LatencyDistribution defaultLatency = LatencyDistribution.NONE;
+    private double lockContentionRate;
+    private String contendingOwner = "another-user";
+    private double concurrentEditRate;
+    private boolean exposeVersions;
+    private boolean textOnly;
+
+    public SimulatedRepositoryFileManager(File directory) {
+        this(directory, System.nanoTime());
+    }
+
+    public SimulatedRepositoryFileManager(File directory, long seed) {
+        this.directory = directory;
+        this.random = new Random(seed);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public void setDefaultLatency(LatencyDistribution defaultLatency) {
+        this.defaultLatency = defaultLatency;
+    }
+
+    public void setLatency(SimulatedOperation operation, LatencyDistribution latency) {
+        latencies.put(operation, latency);
+    }
+
+    public void setErrorRate(SimulatedOperation operation, double errorRate) {
+        errorRates.put(operation, errorRate);
+    }
+
+    //Probability that acquiring a lock finds it taken by `contendingOwner`
+    public void setLockContention(double lockContentionRate, String contendingOwner) {
+        this.lockContentionRate = lockContentionRate;
+        this.contendingOwner = contendingOwner;
+    }
+
+    //Probability that someone else edited the branch right before a lock is granted
+    public void setConcurrentEditRate(double concurrentEditRate) {
+        this.concurrentEditRate = concurrentEditRate;
+    }
+
+    //List files with their content hash as version, as a service exposing ETags in listings would
+    public void setExposeVersions(boolean exposeVersions) {
+        this.exposeVersions = exposeVersions;
+    }
+
+    //Only accept text files, like the API Designer save endpoint
+    public void setTextOnly(boolean textOnly) {
+        this.textOnly = textOnly;
+    }
+
+    public long getCalls(SimulatedOperation operation) {
+        return counter(calls, operation).get();
+    }
+
+    public long getFailures(SimulatedOperation operation) {
+        return counter(failures, operation).get();
+    }
+
+    public long getRemoteEdits() {
+        return remoteEdits.get();
+    }
+
+    @Override
+    public BranchRepositoryLock acquireLock(UserInfoProvider provider, String projectId, String branchName) {
+        call(SimulatedOperation.ACQUIRE_LOCK);
+        final String lockKey = projectId + "/" + branchName;
+        synchronized (lockOwners) {
+            final String owner = lockOwners.get(lockKey);
+            if (owner != null && !owner.equals(provider.getUserId())) {
+                return new BranchRepositoryLock(false, owner, null);
+            }
+            if (random.nextDouble() < lockContentionRate) {
+                return new BranchRepositoryLock(false, contendingOwner, null);
+            }
+            lockOwners.put(lockKey, provider.getUserId());
+        }
+        if (random.nextDouble() < concurrentEditRate) {
+            editRemotely(projectId, branchName);
+        }
+        return new BranchRepositoryLock(true, provider.getUserId(), new SimulatedBranchRepositoryManager(this, getBranchDirectory(projectId, branchName)));
+    }
+
+    @Override
+    public void releaseLock(UserInfoProvider provider, String projectId, String branchName) {
+        call(SimulatedOperation.RELEASE_LOCK);
+        synchronized (lockOwners) {
+            lockOwners.remove(projectId + "/" + branchName, provider.getUserId());
+        }
+    }
+
+    @Override
+    public List<ApiBranch> branches(UserInfoProvider provider, String projectId) {
+        call(SimulatedOperation.BRANCHES);
+        return listDirectories(new File(directory, projectId)).stream().map(ApiBranch::new).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ProjectInfo> projects(UserInfoProvider provider) {
+        call(SimulatedOperation.PROJECTS);
+        return listDirectories(directory).stream().map((name) -> new ProjectInfo(name, name, "")).collect(Collectors.toList());
+    }
+
+    @Override
+    public BranchInfo create(UserInfoProvider provider, ApiType apiType, String name, String description) {
+        call(SimulatedOperation.CREATE);
+        final String projectId = UUID.randomUUID().toString();
+        getBranchDirectory(projectId, "master").mkdirs();
+        return new BranchInfo(projectId, "master", provider.getOrgId());
+    }
+
+    @Override
+    public void publish(UserInfoProvider provider, PublishInfo publishInfo) {
+        call(SimulatedOperation.PUBLISH);
+    }
+
+    //Appends a comment line to a random file of the branch, as a collaborator editing in API Designer would
+    public void editRemotely(String projectId, String branchName) {
+        final File branchDirectory = getBranchDirectory(projectId, branchName);
+        final List<Path> files = listFiles(branchDirectory);
+        if (files.isEmpty()) {
+            return;
+        }
+        final Path file = files.get(random.nextInt(files.size()));
+        try {
+            Files.write(file, ("\n# remote edit " + remoteEdits.incrementAndGet()).getBytes(BranchInfo.DEFAULT_CHARSET), StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    File getBranchDirectory(String projectId, String branchName) {
+        return new File(new File(directory, projectId), branchName);
+    }
+
+    boolean isExposeVersions() {
+        return exposeVersions;
+    }
+
+    boolean isTextOnly() {
+        return textOnly;
+    }
+
+    //Waits the configured latency and fails with the configured probability
+    void call(SimulatedOperation operation) {
+        counter(calls, operation).incrementAndGet();
+        final long latency = latencies.getOrDefault(operation, defaultLatency).nextMillis(random);
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while calling " + operation + ".", e);
+            }
+        }
+        if (random.nextDouble() < errorRates.getOrDefault(operation, 0d)) {
+            counter(failures, operation).incrementAndGet();
+            throw new SimulatedRemoteException(operation);
+        }
+    }
+
+    static List<Path> listFiles(File root) {
+        final List<Path> result = new ArrayList<>();
+        if (!root.isDirectory()) {
+            return result;
+        }
+        try {
+            Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    result.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static List<String> listDirectories(File parent) {
+        final File[] children = parent.listFiles(File::isDirectory);
+        if (children == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(children).map(File::getName).sorted().collect(Collectors.toList());
+    }
+
+    private static AtomicLong counter(Map<SimulatedOperation, AtomicLong> counters, SimulatedOperation operation) {
+        return counters.computeIfAbsent(operation, (key) -> new AtomicLong());
+    }
+}
@@ -0,0 +1,158 @@
+package org.mule.api.vcs.client.store;
+
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.diff.FileUtils;
+import org.mule.api.vcs.client.service.ApiFileContent;
+import org.mule.api.vcs.client.service.ApiFileValidators;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Remote file bodies together with the validators needed to revalidate them, evicted least recently used first
+public class FileContentCache {
+
+    public static final String CACHE_FOLDER_NAME = "cache";
+    public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+    private static final String BODY_EXTENSION = ".body";
+    private static final String META_EXTENSION = ".properties";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final String MIME_TYPE_KEY = "mimeType";
+
+    private final File directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public FileContentCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        loadEntries();
+    }
+
+    public static String key(String branch, String path) {
+        return FileUtils.contentHash((branch + "\n" + Tree.normalize(path)).getBytes(BranchInfo.DEFAULT_CHARSET));
+    }
+
+    public synchronized Optional<ApiFileContent> get(String key) {
+        //Lookup with get so the entry becomes the most recently used
+        if (entries.get(key) == null) {
+            return Optional.empty();
+        }
+        final File bodyFile = getBodyFile(key);
+        final Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(getMetaFile(key))) {
+            meta.load(in);
+            final byte[] body = Files.readAllBytes(bodyFile.toPath());
+            bodyFile.setLastModified(System.currentTimeMillis());
+            final ApiFileValidators validators = new ApiFileValidators(meta.getProperty(ETAG_KEY), meta.getProperty(LAST_MODIFIED_KEY));
+            return Optional.of(new ApiFileContent(body, meta.getProperty(MIME_TYPE_KEY), validators));
+        } catch (IOException e) {
+            //Broken entry just behave as if it was never cached
+            remove(key);
+            return Optional.empty();
+        }
+    }
+
+    public synchronized void put(String key, ApiFileContent content) {
+        final long size = content.getContent().length;
+        if (content.getValidators().isEmpty() || size > maxBytes) {
+            //Nothing to revalidate with, or it would evict everything else
+            remove(key);
+            return;
+        }
+        final Properties meta = new Properties();
+        content.getValidators().getEtag().ifPresent((etag) -> meta.setProperty(ETAG_KEY, etag));
+        content.getValidators().getLastModified().ifPresent((lastModified) -> meta.setProperty(LAST_MODIFIED_KEY, lastModified));
+        if (content.getMimeType() != null) {
+            meta.setProperty(MIME_TYPE_KEY, content.getMimeType());
+        }
+        directory.mkdirs();
+        try (OutputStream out = new FileOutputStream(getMetaFile(key))) {
+            Files.write(getBodyFile(key).toPath(), content.getContent());
+            meta.store(out, "");
+        } catch (IOException e) {
+            remove(key);
+            return;
+        }
+        final Long previous = entries.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+        evict();
+    }
+
+    public synchronized void remove(String key) {
+        final Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        getBodyFile(key).delete();
+        getMetaFile(key).delete();
+    }
+
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            getBodyFile(eldest.getKey()).delete();
+            getMetaFile(eldest.getKey()).delete();
+        }
+    }
+
+    private void loadEntries() {
+        final File[] bodies = directory.listFiles((dir, name) -> name.endsWith(BODY_EXTENSION));
+        if (bodies == null) {
+            return;
+        }
+        //Last access is kept as the body modification time
+        Arrays.sort(bodies, Comparator.comparingLong(File::lastModified));
+        for (File body : bodies) {
+            final String key = body.getName().substring(0, body.getName().length() - BODY_EXTENSION.length());
+            if (getMetaFile(key).isFile()) {
+                entries.put(key, body.length());
+                totalBytes += body.length();
+            } else {
+                body.delete();
+            }
+        }
+        evict();
+    }
+
+    private File getBodyFile(String key) {
+        return new File(directory, key + BODY_EXTENSION);
+    }
+
+    private File getMetaFile(String key) {
+        return new File(directory, key + META_EXTENSION);
+    }
+}
@@ -0,0 +1,189 @@
+package org.mule.api.vcs.client.store;
+
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.diff.FileUtils;
+import org.mule.api.vcs.client.diff.LineSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public class ObjectStore {
+
+    public static final String OBJECTS_FOLDER_NAME = "objects";
+    public static final String REFS_FOLDER_NAME = "refs";
+    public static final String REMOTES_FOLDER_NAME = "remotes";
+    //Layout used before the object store, every branch was a plain copy of the remote files
+    public static final String LEGACY_BRANCHES_FOLDER_NAME = "branches";
+
+    private final File apiVCSDirectory;
+
+    public ObjectStore(File apiVCSDirectory) {
+        this.apiVCSDirectory = apiVCSDirectory;
+    }
+
+    public String put(byte[] content) throws IOException {
+        final String hash = FileUtils.contentHash(content);
+        final File objectFile = getObjectFile(hash);
+        if (!objectFile.exists()) {
+            final File parent = objectFile.getParentFile();
+            parent.mkdirs();
+            final Path tmp = new File(parent, "tmp-" + UUID.randomUUID()).toPath();
+            Files.write(tmp, content);
+            try {
+                Files.move(tmp, objectFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                //Someone else stored the same content concurrently
+                if (!objectFile.exists()) {
+                    throw e;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public boolean contains(String hash) {
+        return getObjectFile(hash).isFile();
+    }
+
+    public byte[] get(String hash) throws IOException {
+        final File objectFile = getObjectFile(hash);
+        if (!objectFile.isFile()) {
+            throw new IOException("Object " + hash + " is missing from " + getObjectsDirectory().getAbsolutePath());
+        }
+        return Files.readAllBytes(objectFile.toPath());
+    }
+
+    public List<String> getLines(String hash) throws IOException {
+        return FileUtils.readLines(get(hash));
+    }
+
+    //True when `file` holds exactly the bytes of the object, without hashing or decoding either of them
+    public boolean hasContent(String hash, File file) throws IOException {
+        final File objectFile = getObjectFile(hash);
+        return objectFile.isFile() && FileUtils.sameContent(objectFile, file);
+    }
+
+    //Objects are never rewritten, so the lines can be read in place for as long as they are needed
+    public LineSource getLineSource(String hash) throws IOException {
+        return LineSource.open(getFile(hash));
+    }
+
+    //Same guarantee as getLineSource, for content that is copied around as raw bytes
+    public File getFile(String hash) throws IOException {
+        final File objectFile = getObjectFile(hash);
+        if (!objectFile.isFile()) {
+            throw new IOException("Object " + hash + " is missing from " + getObjectsDirectory().getAbsolutePath());
+        }
+        return objectFile;
+    }
+
+    public String putTree(Tree tree) throws IOException {
+        return put(tree.serialize());
+    }
+
+    public Tree getTree(String hash) throws IOException {
+        return Tree.parse(get(hash));
+    }
+
+    public boolean hasBranch(String branch) {
+        return getRefFile(branch).isFile() || getLegacyBranchDirectory(branch).isDirectory();
+    }
+
+    public Optional<Tree> branchTree(String branch) throws IOException {
+        final File refFile = getRefFile(branch);
+        if (refFile.isFile()) {
+            final String hash = new String(Files.readAllBytes(refFile.toPath()), BranchInfo.DEFAULT_CHARSET).trim();
+            return Optional.of(getTree(hash));
+        } else if (getLegacyBranchDirectory(branch).isDirectory()) {
+            return Optional.of(importLegacyBranch(branch));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    public void updateBranch(String branch, Tree tree) throws IOException {
+        final String hash = putTree(tree);
+        final File refFile = getRefFile(branch);
+        refFile.getParentFile().mkdirs();
+        final Path tmp = new File(refFile.getParentFile(), refFile.getName() + ".tmp").toPath();
+        Files.write(tmp, hash.getBytes(BranchInfo.DEFAULT_CHARSET));
+        Files.move(tmp, refFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public RemoteSnapshot remoteSnapshot(String branch) {
+        final File remoteFile = getRemoteFile(branch);
+        if (remoteFile.isFile()) {
+            try {
+                return RemoteSnapshot.parse(Files.readAllBytes(remoteFile.toPath()));
+            } catch (IOException e) {
+                //Without a snapshot every remote file is fetched again
+                return RemoteSnapshot.EMPTY;
+            }
+        }
+        return RemoteSnapshot.EMPTY;
+    }
+
+    public void updateRemoteSnapshot(String branch, RemoteSnapshot snapshot) throws IOException {
+        final File remoteFile = getRemoteFile(branch);
+        remoteFile.getParentFile().mkdirs();
+        final Path tmp = new File(remoteFile.getParentFile(), remoteFile.getName() + ".tmp").toPath();
+        Files.write(tmp, snapshot.serialize());
+        Files.move(tmp, remoteFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Tree importLegacyBranch(String branch) throws IOException {
+        final Path root = getLegacyBranchDirectory(branch).toPath();
+        final Tree.Builder builder = Tree.builder();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile()) {
+                    builder.put(root.relativize(file).toString(), put(Files.readAllBytes(file)));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        final Tree tree = builder.build();
+        updateBranch(branch, tree);
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return tree;
+    }
+
+    private File getObjectsDirectory() {
+        return new File(apiVCSDirectory, OBJECTS_FOLDER_NAME);
+    }
+
+    private File getObjectFile(String hash) {
+        return new File(new File(getObjectsDirectory(), hash.substring(0, 2)), hash.substring(2));
+    }
+
+    private File getRefFile(String branch) {
+        return new File(new File(apiVCSDirectory, REFS_FOLDER_NAME), branch);
+    }
+
+    private File getRemoteFile(String branch) {
+        return new File(new File(apiVCSDirectory, REMOTES_FOLDER_NAME), branch);
+    }
+
+    private File getLegacyBranchDirectory(String branch) {
+        return new File(new File(apiVCSDirectory, LEGACY_BRANCHES_FOLDER_NAME), branch);
+    }
+}
@@ -0,0 +1,78 @@
+package org.mule.api.vcs.client.store;
+
+import org.mule.api.vcs.client.BranchInfo;
+
+import java.util.*;
+
+//Remembers which object every remote file version was resolved to, so unchanged remote files are not fetched again
+public class RemoteSnapshot {
+
+    public static final RemoteSnapshot EMPTY = new RemoteSnapshot(new TreeMap<>());
+
+    private final SortedMap<String, Entry> entries;
+
+    private RemoteSnapshot(SortedMap<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    public Optional<String> hashOf(String path, String version) {
+        final Entry entry = entries.get(Tree.normalize(path));
+        if (entry != null && entry.version.equals(version)) {
+            return Optional.of(entry.hash);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public byte[] serialize() {
+        final StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            content.append(entry.getValue().hash).append('\t')
+                    .append(entry.getValue().version).append('\t')
+                    .append(entry.getKey()).append('\n');
+        }
+        return content.toString().getBytes(BranchInfo.DEFAULT_CHARSET);
+    }
+
+    public static RemoteSnapshot parse(byte[] content) {
+        final TreeMap<String, Entry> entries = new TreeMap<>();
+        for (String line : new String(content, BranchInfo.DEFAULT_CHARSET).split("\n")) {
+            final String[] parts = line.split("\t", 3);
+            if (parts.length == 3) {
+                entries.put(parts[2], new Entry(parts[1], parts[0]));
+            }
+        }
+        return new RemoteSnapshot(entries);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static class Entry {
+        private final String version;
+        private final String hash;
+
+        Entry(String version, String hash) {
+            this.version = version;
+            this.hash = hash;
+        }
+    }
+
+    public static class Builder {
+        private final TreeMap<String, Entry> entries = new TreeMap<>();
+
+        public Builder put(String path, String version, String hash) {
+            entries.put(Tree.normalize(path), new Entry(version, hash));
+            return this;
+        }
+
+        public RemoteSnapshot build() {
+            return new RemoteSnapshot(new TreeMap<>(entries));
+        }
+    }
+}
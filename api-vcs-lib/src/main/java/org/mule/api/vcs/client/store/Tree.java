@@ -0,0 +1,108 @@
+package org.mule.api.vcs.client.store;
+
+import org.mule.api.vcs.client.BranchInfo;
+import org.mule.api.vcs.client.diff.FileUtils;
+
+import java.io.File;
+import java.util.*;
+
+public class Tree {
+
+    public static final Tree EMPTY = new Tree(new TreeMap<>());
+
+    private final SortedMap<String, String> entries;
+
+    private Tree(SortedMap<String, String> entries) {
+        this.entries = entries;
+    }
+
+    public Optional<String> get(String path) {
+        return Optional.ofNullable(entries.get(path));
+    }
+
+    public boolean contains(String path) {
+        return entries.containsKey(path);
+    }
+
+    public Set<String> paths() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Tree with(String path, String hash) {
+        final TreeMap<String, String> newEntries = new TreeMap<>(entries);
+        newEntries.put(normalize(path), hash);
+        return new Tree(newEntries);
+    }
+
+    public Tree without(String path) {
+        final TreeMap<String, String> newEntries = new TreeMap<>(entries);
+        newEntries.remove(normalize(path));
+        return new Tree(newEntries);
+    }
+
+    public String hash() {
+        return FileUtils.contentHash(serialize());
+    }
+
+    public byte[] serialize() {
+        final StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            content.append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+        }
+        return content.toString().getBytes(BranchInfo.DEFAULT_CHARSET);
+    }
+
+    public static Tree parse(byte[] content) {
+        final TreeMap<String, String> entries = new TreeMap<>();
+        for (String line : new String(content, BranchInfo.DEFAULT_CHARSET).split("\n")) {
+            final int separator = line.indexOf(' ');
+            if (separator > 0) {
+                entries.put(line.substring(separator + 1), line.substring(0, separator));
+            }
+        }
+        return new Tree(entries);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    //Paths are always stored relative to the project root using `/` as separator
+    public static String normalize(String path) {
+        String result = path.replace(File.separatorChar, '/');
+        while (result.startsWith("./") || result.startsWith("/")) {
+            result = result.substring(result.indexOf('/') + 1);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Tree tree = (Tree) o;
+        return Objects.equals(entries, tree.entries);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entries);
+    }
+
+    public static class Builder {
+        private final TreeMap<String, String> entries = new TreeMap<>();
+
+        public Builder put(String path, String hash) {
+            entries.put(normalize(path), hash);
+            return this;
+        }
+
+        public Tree build() {
+            return new Tree(new TreeMap<>(entries));
+        }
+    }
+}
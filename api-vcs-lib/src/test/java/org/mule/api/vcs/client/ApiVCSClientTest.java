@@ -1,19 +1,41 @@
 package org.mule.api.vcs.client;
 
+import com.github.difflib.patch.Patch;
 import org.hamcrest.CoreMatchers;
 import org.junit.Test;
 import org.mule.api.vcs.client.diff.*;
+import org.mule.api.vcs.client.metrics.ApiVCSMetrics;
+import org.mule.api.vcs.client.metrics.InMemoryMetricsRegistry;
+import org.mule.api.vcs.client.mirror.MirrorEntry;
+import org.mule.api.vcs.client.mirror.MirrorManifest;
+import org.mule.api.vcs.client.mirror.OrgMirror;
 import org.mule.api.vcs.client.service.MockFileManager;
 import org.mule.api.vcs.client.service.UserInfoProvider;
+import org.mule.api.vcs.client.service.resilience.CircuitBreaker;
+import org.mule.api.vcs.client.service.resilience.RetryBudget;
+import org.mule.api.vcs.client.service.resilience.RetryPolicy;
+import org.mule.api.vcs.client.service.simulation.LatencyDistribution;
+import org.mule.api.vcs.client.service.simulation.SimulatedOperation;
+import org.mule.api.vcs.client.service.simulation.SimulatedRemoteException;
+import org.mule.api.vcs.client.service.simulation.SimulatedRepositoryFileManager;
+import org.mule.api.vcs.client.store.FileContentCache;
+import org.mule.api.vcs.client.store.ObjectStore;
+import org.mule.api.vcs.client.store.Tree;
 
 import java.io.*;
 import java.net.URL;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
 import java.util.UUID;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class ApiVCSClientTest {
 
@@ -66,6 +88,22 @@ public class ApiVCSClientTest {
         return workspace;
     }
 
+    //A remote with project 1234, its master branch starting as the first snapshot of `complex_project`
+    private SimulatedRepositoryFileManager simulatedRemote() throws IOException {
+        return simulatedRemote(7);
+    }
+
+    private SimulatedRepositoryFileManager simulatedRemote(long seed) throws IOException {
+        final File remote = createRepository();
+        new File(remote, "1234").mkdirs();
+        copy(new File(getTestDirectory("complex_project"), "master" + File.separator + "t0"), new File(remote, "1234" + File.separator + "master"));
+        return new SimulatedRepositoryFileManager(remote, seed);
+    }
+
+    private static File remoteBranch(SimulatedRepositoryFileManager fileManager) {
+        return new File(fileManager.getDirectory(), "1234" + File.separator + "master");
+    }
+
     @Test
     public void shouldCloneCorrectly() throws IOException {
         final File workspace = createWorkspace();
@@ -75,15 +113,84 @@ public class ApiVCSClientTest {
         assertThat(master.isSuccess(), is(true));
         final File[] files = client.getApiVCSDirectory().listFiles();
         assertThat(files, notNullValue());
-        final File masterBranch = client.getBranchDirectory("master");
-        final File apiRaml = new File(masterBranch, "Api.raml");
-        assertThat(apiRaml.exists(), is(true));
+        final Tree masterBranch = client.getObjectStore().branchTree("master").get();
+        assertThat(masterBranch.contains("Api.raml"), is(true));
         final BranchInfo config = client.loadConfig().doGetValue();
         assertThat(config.getProjectId(), is("1234"));
         assertThat(config.getBranch(), is("master"));
         assertThat(new File(workspace, "Api.raml").exists(), is(true));
     }
 
+    @Test
+    public void shouldCloneInParallelCorrectly() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("complex_project");
+        final ApiVCSClient client = new ApiVCSClient(workspace, new MockFileManager(dataDirectory));
+        client.setDownloadConcurrency(3);
+        final ValueResult<Void> master = client.clone(getUserInfo(), createBranchInfo());
+        assertThat(master.getMessage().orElse(""), master.isSuccess(), is(true));
+        final File remote = new File(dataDirectory, "master" + File.separator + "t0");
+        final Tree masterBranch = client.getObjectStore().branchTree("master").get();
+        assertThat(masterBranch.size(), is(3));
+        for (String path : new String[]{"Api.raml", "fragments/MyTypes.raml", "fragments/MyTypes2.raml"}) {
+            final byte[] expected = Files.readAllBytes(new File(remote, path).toPath());
+            assertThat(Files.readAllBytes(new File(workspace, path).toPath()), is(expected));
+            assertThat(client.getObjectStore().get(masterBranch.get(path).get()), is(expected));
+        }
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+    }
+
+
+    @Test
+    public void parallelDiffMatchesSequentialDiff() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("complex_project");
+        final ApiVCSClient client = new ApiVCSClient(workspace, new MockFileManager(dataDirectory));
+        client.clone(getUserInfo(), createBranchInfo());
+        new File(workspace, "fragments" + File.separator + "MyTypes2.raml").delete();
+        try (final FileWriter fileWriter = new FileWriter(new File(workspace, "Api.raml"), true)) {
+            fileWriter.write("/added:\n");
+        }
+        for (int i = 0; i < 40; i++) {
+            final File directory = new File(workspace, "types" + (i % 5) + File.separator + "nested" + (i % 3));
+            directory.mkdirs();
+            try (final FileWriter fileWriter = new FileWriter(new File(directory, "Type" + i + ".raml"))) {
+                fileWriter.write("#%RAML 1.0 DataType\ntype: string\n");
+            }
+        }
+
+        client.setDiffParallelism(1);
+        final List<Diff> sequential = client.diff().doGetValue();
+        client.setDiffParallelism(4);
+        final List<Diff> parallel = client.diff().doGetValue();
+        assertThat(sequential.size(), is(42));
+        assertThat(print(parallel), is(print(sequential)));
+        final List<String> paths = new ArrayList<>();
+        for (Diff diff : parallel) {
+            paths.add(diff.getRelativePath());
+        }
+        final List<String> sortedPaths = new ArrayList<>(paths);
+        sortedPaths.sort(null);
+        assertThat(paths, is(sortedPaths));
+    }
+
+    @Test
+    public void shouldImportLegacyBranchDirectory() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("complex_project");
+        final ApiVCSClient client = new ApiVCSClient(workspace, new MockFileManager(dataDirectory));
+        client.clone(getUserInfo(), createBranchInfo());
+        final File apiVCSDirectory = client.getApiVCSDirectory();
+        final File refs = new File(apiVCSDirectory, ObjectStore.REFS_FOLDER_NAME);
+        new File(refs, "master").delete();
+        final File legacyBranch = new File(apiVCSDirectory, ObjectStore.LEGACY_BRANCHES_FOLDER_NAME + File.separator + "master");
+        legacyBranch.getParentFile().mkdirs();
+        copy(new File(dataDirectory, "master" + File.separator + "t0"), legacyBranch);
+
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+        assertThat(legacyBranch.exists(), is(false));
+        assertThat(client.getObjectStore().branchTree("master").get().size(), is(3));
+    }
 
     @Test
     public void shouldCalculateModifiedDiffCorrectly() throws IOException {
@@ -122,6 +229,242 @@ public class ApiVCSClientTest {
         assertThat(diffContent.toString().trim(), is(diff));
     }
 
+    @Test
+    public void shouldSkipFilesWithUnchangedStatInIndex() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("modified_diff");
+        final ApiVCSClient client = new ApiVCSClient(workspace, new MockFileManager(dataDirectory));
+        final ValueResult master = client.clone(getUserInfo(), createBranchInfo());
+        assertThat(master.isSuccess(), is(true));
+        final File apiFile = new File(workspace, "Api.raml");
+        final long lastModified = System.currentTimeMillis() - 10000;
+        apiFile.setLastModified(lastModified);
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+        assertThat(new File(client.getApiVCSDirectory(), WorkspaceIndex.INDEX_FILE_NAME).exists(), is(true));
+
+        //Same size and modification time, only a stat check can consider them equal
+        final String content = new String(Files.readAllBytes(apiFile.toPath()), BranchInfo.DEFAULT_CHARSET);
+        try (final FileWriter fileWriter = new FileWriter(apiFile)) {
+            fileWriter.write(content.toUpperCase());
+        }
+        apiFile.setLastModified(lastModified);
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+
+        try (final FileWriter fileWriter = new FileWriter(apiFile)) {
+            fileWriter.write(content + "\n/test2:");
+        }
+        assertThat(client.diff().doGetValue().size(), is(1));
+    }
+
+    @Test
+    public void identicalFilesSkipTheLineDiff() throws IOException {
+        final File workspace = createWorkspace();
+        final ApiVCSClient client = new ApiVCSClient(workspace, new MockFileManager(getTestDirectory("modified_diff")));
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        client.setMetricsRegistry(metrics);
+        //Without an index every file has to be compared with its original
+        new File(client.getApiVCSDirectory(), WorkspaceIndex.INDEX_FILE_NAME).delete();
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+        final long identical = metrics.counter(ApiVCSMetrics.DIFF_IDENTICAL).getValue();
+        assertThat(identical > 0, is(true));
+        assertThat(metrics.counter(ApiVCSMetrics.DIFF_STAT_UNCHANGED).getValue(), is(0L));
+
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+        assertThat(metrics.counter(ApiVCSMetrics.DIFF_IDENTICAL).getValue(), is(identical));
+        assertThat(metrics.counter(ApiVCSMetrics.DIFF_STAT_UNCHANGED).getValue(), is(identical));
+    }
+
+    @Test
+    public void diffOverBudgetIsAWholeReplacement() throws IOException {
+        final File workspace = createWorkspace();
+        final ApiVCSClient client = new ApiVCSClient(workspace, new MockFileManager(getTestDirectory("modified_diff")));
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        client.setMetricsRegistry(metrics);
+        final File api = new File(workspace, "Api.raml");
+        final List<String> original = Files.readAllLines(api.toPath());
+        final List<String> reordered = new ArrayList<>(original.subList(1, original.size()));
+        Collections.reverse(reordered);
+        reordered.add(0, original.get(0));
+        Files.write(api.toPath(), reordered);
+
+        final ModifiedFileDiff minimal = (ModifiedFileDiff) client.diff().doGetValue().get(0);
+        assertThat(minimal.isReplacement(), is(false));
+        client.setDiffMaxEditDistance(1);
+        final ModifiedFileDiff replaced = (ModifiedFileDiff) client.diff().doGetValue().get(0);
+        assertThat(replaced.isReplacement(), is(true));
+        assertThat(metrics.counter(ApiVCSMetrics.DIFF_REPLACED).getValue(), is(1L));
+        //Only the first line is common, everything after it is replaced by one hunk
+        final StringWriter printed = new StringWriter();
+        replaced.print(new PrintWriter(printed));
+        assertThat(printed.toString().split("@@ ").length, is(2));
+
+        replaced.unApply(workspace);
+        assertThat(replaced.apply(workspace, MergingStrategy.KEEP_OURS).isSuccess(), is(true));
+        assertThat(Files.readAllLines(api.toPath()), is(reordered));
+    }
+
+    @Test
+    public void remoteHiddenFilesAreNotReportedAsDeleted() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final File remoteBranch = remoteBranch(fileManager);
+        Files.write(new File(remoteBranch, ".exchange.json").toPath(), "{}".getBytes(BranchInfo.DEFAULT_CHARSET));
+        new File(remoteBranch, ".settings").mkdirs();
+        Files.write(new File(remoteBranch, ".settings" + File.separator + "types.raml").toPath(), "#%RAML 1.0 Library".getBytes(BranchInfo.DEFAULT_CHARSET));
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        assertThat(client.getObjectStore().branchTree("master").get().contains(".exchange.json"), is(true));
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+    }
+
+    @Test
+    public void binaryFilesAreDiffedAndPushedAsBytes() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final File remoteBranch = remoteBranch(fileManager);
+        //Not valid UTF-8 either, any decoding on the way would change it
+        final byte[] image = new byte[]{(byte) 0x89, 'P', 'N', 'G', 0, 0, (byte) 0xFF, (byte) 0xC3, '\n', 0x28, (byte) 0x80};
+        Files.write(new File(remoteBranch, "logo.png").toPath(), image);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        final File logo = new File(workspace, "logo.png");
+        assertThat(Arrays.equals(Files.readAllBytes(logo.toPath()), image), is(true));
+
+        final byte[] changed = Arrays.copyOf(image, image.length + 2);
+        Files.write(logo.toPath(), changed);
+        final List<Diff> diffs = client.diff().doGetValue();
+        assertThat(diffs.size(), is(1));
+        assertThat(diffs.get(0), instanceOf(BinaryFileDiff.class));
+        final StringWriter printed = new StringWriter();
+        diffs.get(0).print(new PrintWriter(printed));
+        assertThat(printed.toString(), containsString("Binary files a/./logo.png and b/./logo.png differ"));
+
+        assertThat(client.revert(diffs.get(0).getRelativePath()).isSuccess(), is(true));
+        assertThat(Arrays.equals(Files.readAllBytes(logo.toPath()), image), is(true));
+
+        Files.write(logo.toPath(), changed);
+        assertThat(client.push(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener()).isSuccess(), is(true));
+        assertThat(Arrays.equals(Files.readAllBytes(new File(remoteBranch, "logo.png").toPath()), changed), is(true));
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+
+        logo.delete();
+        final List<Diff> deleted = client.diff().doGetValue();
+        assertThat(deleted.get(0), instanceOf(DeleteFileDiff.class));
+        assertThat(((DeleteFileDiff) deleted.get(0)).isBinary(), is(true));
+        assertThat(deleted.get(0).unApply(workspace).isSuccess(), is(true));
+        assertThat(Arrays.equals(Files.readAllBytes(logo.toPath()), changed), is(true));
+    }
+
+    @Test
+    public void pullKeepsPermissionsAndSymlinksOfPatchedFiles() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final File remoteBranch = remoteBranch(fileManager);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        final File api = new File(workspace, "Api.raml");
+        final File linked = new File(workspace.getParentFile(), workspace.getName() + "-Api.raml");
+        Files.move(api.toPath(), linked.toPath());
+        Files.createSymbolicLink(api.toPath(), linked.toPath());
+        assertThat(linked.setExecutable(true), is(true));
+        try (final FileWriter fileWriter = new FileWriter(new File(remoteBranch, "Api.raml"), true)) {
+            fileWriter.write("/added:\n");
+        }
+
+        assertThat(client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener()).isSuccess(), is(true));
+        assertThat(Files.isSymbolicLink(api.toPath()), is(true));
+        assertThat(linked.canExecute(), is(true));
+        assertThat(readFile(linked), containsString("/added:"));
+
+        //Binary files are replaced by a copy of the object instead of being patched
+        final File tool = new File(workspace, "tool.bin");
+        final File linkedTool = new File(workspace.getParentFile(), workspace.getName() + "-tool.bin");
+        Files.write(new File(remoteBranch, "tool.bin").toPath(), new byte[]{0, 1, 2});
+        assertThat(client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener()).isSuccess(), is(true));
+        Files.move(tool.toPath(), linkedTool.toPath());
+        Files.createSymbolicLink(tool.toPath(), linkedTool.toPath());
+        assertThat(linkedTool.setExecutable(true), is(true));
+        Files.write(new File(remoteBranch, "tool.bin").toPath(), new byte[]{0, 1, 2, 3});
+        assertThat(client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener()).isSuccess(), is(true));
+        assertThat(Files.isSymbolicLink(tool.toPath()), is(true));
+        assertThat(linkedTool.canExecute(), is(true));
+        assertThat(Arrays.equals(Files.readAllBytes(linkedTool.toPath()), new byte[]{0, 1, 2, 3}), is(true));
+    }
+
+    @Test
+    public void binaryPushToATextOnlyRemoteFailsBeforeUploading() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final File remoteBranch = remoteBranch(fileManager);
+        fileManager.setTextOnly(true);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        final byte[] remoteApi = Files.readAllBytes(new File(remoteBranch, "Api.raml").toPath());
+        try (final FileWriter fileWriter = new FileWriter(new File(workspace, "Api.raml"), true)) {
+            fileWriter.write("/added:\n");
+        }
+        Files.write(new File(workspace, "logo.png").toPath(), new byte[]{(byte) 0x89, 'P', 'N', 'G', 0, 0});
+
+        final ValueResult<Void> push = client.push(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(push.isFailure(), is(true));
+        assertThat(push.getMessage().orElse(""), containsString("logo.png"));
+        assertThat(fileManager.getCalls(SimulatedOperation.SAVE), is(0L));
+        assertThat(Files.readAllBytes(new File(remoteBranch, "Api.raml").toPath()), is(remoteApi));
+        assertThat(client.diff().doGetValue().size(), is(2));
+    }
+
+    @Test
+    public void failedBatchStopsThePushAndKeepsWhatWasSaved() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final File remoteBranch = remoteBranch(fileManager);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        client.setPushBatchLimits(1, Long.MAX_VALUE);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        for (String path : Arrays.asList("a.raml", "b.raml", "c.raml")) {
+            Files.write(new File(workspace, path).toPath(), ("#%RAML 1.0 DataType\ntype: string\n").getBytes(BranchInfo.DEFAULT_CHARSET));
+        }
+        //The remote can not write `b.raml` over a directory, so its batch is rejected
+        new File(remoteBranch, "b.raml").mkdirs();
+
+        final ValueResult<Void> push = client.push(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(push.isFailure(), is(true));
+        assertThat(push.getMessage().orElse(""), containsString("b.raml"));
+        final List<String> pending = new ArrayList<>();
+        for (Diff diff : client.diff().doGetValue()) {
+            pending.add(diff.getRelativePath());
+        }
+        assertThat(pending.contains("./b.raml"), is(true));
+        long saved = 0;
+        for (String path : Arrays.asList("a.raml", "c.raml")) {
+            final boolean onRemote = new File(remoteBranch, path).isFile();
+            assertThat(pending.contains("./" + path), is(!onRemote));
+            saved += onRemote ? 1 : 0;
+        }
+        //Nothing is attempted after the rejected batch
+        assertThat(fileManager.getCalls(SimulatedOperation.SAVE), is(saved + 1));
+    }
+
+    @Test
+    public void failingSaveIsAFailedPushNamingUnsavedFiles() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        for (String path : Arrays.asList("a.raml", "b.raml")) {
+            Files.write(new File(workspace, path).toPath(), ("#%RAML 1.0 DataType\ntype: string\n").getBytes(BranchInfo.DEFAULT_CHARSET));
+        }
+        fileManager.setErrorRate(SimulatedOperation.SAVE, 1);
+
+        final ValueResult<Void> push = client.push(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(push.isFailure(), is(true));
+        assertThat(push.getMessage().orElse(""), containsString("a.raml"));
+        assertThat(push.getMessage().orElse(""), containsString("b.raml"));
+        assertThat(client.diff().doGetValue().size(), is(2));
+    }
+
     @Test
     public void shouldCalculateNewFileDiffCorrectly() throws IOException {
         final File workspace = createWorkspace();
@@ -185,6 +528,38 @@ public class ApiVCSClientTest {
         assertThat(diffContent.toString().trim(), is(diff));
     }
 
+    @Test
+    public void mappedLineSourceDiffsAndPatchesLargeFiles() throws Exception {
+        final byte[] mixedTerminators = "a\r\nb\rc\n\nd".getBytes(BranchInfo.DEFAULT_CHARSET);
+        assertThat(LineSource.of(mixedTerminators).lines(), is(FileUtils.readLines(mixedTerminators)));
+
+        final File workspace = createWorkspace();
+        final List<String> original = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            original.add("line " + i + " \u00e9");
+        }
+        final List<String> revised = new ArrayList<>(original);
+        revised.set(10, "changed");
+        revised.remove(15000);
+        revised.add(19000, "added");
+        final File originalFile = new File(workspace, "original.txt");
+        final File revisedFile = new File(workspace, "revised.txt");
+        Files.write(originalFile.toPath(), original, BranchInfo.DEFAULT_CHARSET);
+        Files.write(revisedFile.toPath(), revised, BranchInfo.DEFAULT_CHARSET);
+        assertThat(originalFile.length() > LineSource.MAPPING_THRESHOLD, is(true));
+
+        final LineSource originalSource = LineSource.open(originalFile);
+        final Patch<String> patch = LineDiff.diff(originalSource, LineSource.open(revisedFile));
+        assertThat(patch.getDeltas().size(), is(3));
+        assertThat(patch.getDeltas(), is(LineDiff.diff(original, revised).getDeltas()));
+
+        final ModifiedFileDiff diff = new ModifiedFileDiff(patch, "original.txt", originalSource.lines(), "hash");
+        //Kept for callers of the file based diff
+        assertThat(diff.getOriginal(), is(original));
+        assertThat(diff.apply(workspace, MergingStrategy.KEEP_OURS).isSuccess(), is(true));
+        assertThat(Files.readAllLines(originalFile.toPath(), BranchInfo.DEFAULT_CHARSET), is(revised));
+    }
+
     @Test
     public void pullChanges() throws IOException {
         final File workspace = createWorkspace();
@@ -201,6 +576,269 @@ public class ApiVCSClientTest {
     }
 
 
+    @Test
+    public void pullOnlyFetchesFilesWithNewRemoteVersion() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("simple_concurrent");
+        final MockFileManager fileManager = new MockFileManager(dataDirectory);
+        fileManager.setExposeVersions(true);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        client.clone(getUserInfo(), createBranchInfo());
+        assertThat(fileManager.getFetchedFiles(), is(Arrays.asList("Api.raml")));
+
+        final ValueResult<Void> pull = client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(pull.isSuccess(), is(true));
+        assertThat(fileManager.getFetchedFiles(), is(Arrays.asList("Api.raml", "MyLib.raml")));
+        assertThat(new File(workspace, "MyLib.raml").exists(), is(true));
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+    }
+
+    @Test
+    public void pullRecordsPhaseMetrics() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("simple_concurrent");
+        final MockFileManager fileManager = new MockFileManager(dataDirectory);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        client.setMetricsRegistry(metrics);
+        client.clone(getUserInfo(), createBranchInfo());
+
+        final ValueResult<Void> pull = client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(pull.isSuccess(), is(true));
+        assertThat(metrics.timer(ApiVCSMetrics.CLONE).getCount(), is(1L));
+        assertThat(metrics.timer(ApiVCSMetrics.PULL).getCount(), is(1L));
+        assertThat(metrics.timer(ApiVCSMetrics.ACQUIRE_LOCK).getCount(), is(2L));
+        assertThat(metrics.timer(ApiVCSMetrics.LIST_FILES).getCount(), is(2L));
+        assertThat(metrics.timer(ApiVCSMetrics.APPLY).getCount(), is(1L));
+        assertThat(metrics.counter(ApiVCSMetrics.FILES_FETCHED).getValue(), is(3L));
+        assertThat(metrics.counter(ApiVCSMetrics.FILES_APPLIED).getValue(), is(1L));
+        assertThat(metrics.histogram(ApiVCSMetrics.FETCHED_FILE_BYTES).getSum(), is(metrics.counter(ApiVCSMetrics.BYTES_FETCHED).getValue()));
+        assertThat(metrics.timer(ApiVCSMetrics.endpoint("acquireLock")).getCount(), is(2L));
+        assertThat(metrics.timer(ApiVCSMetrics.endpoint("listFiles")).getCount(), is(2L));
+        assertThat(metrics.histogram(ApiVCSMetrics.endpoint("listFiles.items")).getMax(), is(2L));
+    }
+
+    @Test
+    public void pullRevalidatesCachedContent() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("simple_concurrent");
+        final MockFileManager fileManager = new MockFileManager(dataDirectory);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        client.setContentCacheMaxBytes(FileContentCache.DEFAULT_MAX_BYTES);
+        client.clone(getUserInfo(), createBranchInfo());
+        assertThat(client.getContentCache().getMisses(), is(1L));
+
+        final ValueResult<Void> pull = client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(pull.isSuccess(), is(true));
+        assertThat(client.getContentCache().getHits(), is(1L));
+        assertThat(client.getContentCache().getMisses(), is(2L));
+        assertThat(fileManager.getFetchedFiles(), is(Arrays.asList("Api.raml", "MyLib.raml")));
+        assertThat(new File(workspace, "MyLib.raml").exists(), is(true));
+    }
+
+    @Test
+    public void pullFromSimulatedRemoteWithConcurrentEdits() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        fileManager.setDefaultLatency(LatencyDistribution.uniform(1, 3));
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+
+        fileManager.setConcurrentEditRate(1);
+        final ValueResult<Void> pull = client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(pull.isSuccess(), is(true));
+        assertThat(fileManager.getRemoteEdits(), is(1L));
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+        assertThat(fileManager.getCalls(SimulatedOperation.RELEASE_LOCK), is(2L));
+
+        fileManager.setErrorRate(SimulatedOperation.FILE_CONTENT, 1);
+        try {
+            client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+            fail("Pull should fail when the remote does");
+        } catch (SimulatedRemoteException e) {
+            assertThat(e.getOperation(), is(SimulatedOperation.FILE_CONTENT));
+        }
+        assertThat(fileManager.getCalls(SimulatedOperation.RELEASE_LOCK), is(3L));
+    }
+
+    @Test
+    public void releasesLockLeftByAKilledRun() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        client.setMetricsRegistry(metrics);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        final File leases = new File(new File(workspace, ApiVCSClient.APIVCS_FOLDER_NAME), LockLeaseManager.LEASES_FOLDER_NAME);
+        assertThat(leases.list().length, is(0));
+
+        //What a process killed while holding the lock leaves behind
+        final Properties lease = new Properties();
+        lease.setProperty("projectId", "1234");
+        lease.setProperty("branch", "master");
+        lease.setProperty("orgId", "mulesoft");
+        lease.setProperty("renewedAt", "0");
+        try (FileOutputStream out = new FileOutputStream(new File(leases, "killed"))) {
+            lease.store(out, null);
+        }
+        assertThat(client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener()).isSuccess(), is(true));
+        assertThat(metrics.counter(ApiVCSMetrics.STALE_LOCKS_RELEASED).getValue(), is(1L));
+        assertThat(fileManager.getCalls(SimulatedOperation.RELEASE_LOCK), is(3L));
+        assertThat(leases.list().length, is(0));
+    }
+
+    @Test
+    public void syncPullsEveryWorkspaceUnderADirectory() throws IOException {
+        final File root = createWorkspace();
+        final File remote = createRepository();
+        final SimulatedRepositoryFileManager fileManager = new SimulatedRepositoryFileManager(remote, 7);
+        for (String projectId : Arrays.asList("1234", "5678")) {
+            new File(remote, projectId).mkdirs();
+            copy(new File(getTestDirectory("complex_project"), "master" + File.separator + "t0"), new File(remote, projectId + File.separator + "master"));
+            final ApiVCSClient client = new ApiVCSClient(new File(root, "project" + projectId), fileManager);
+            assertThat(client.clone(getUserInfo(), new BranchInfo(projectId, "master", "mulesoft")).isSuccess(), is(true));
+        }
+        new File(root, "notAProject").mkdirs();
+
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        final WorkspaceSync sync = new WorkspaceSync(fileManager, 2);
+        sync.setClientConfigurer((client) -> {
+            client.setMetricsRegistry(metrics);
+            return client;
+        });
+        final List<File> workspaces = sync.findWorkspaces(root);
+        assertThat(workspaces, is(Arrays.asList(new File(root, "project1234"), new File(root, "project5678"))));
+
+        fileManager.setConcurrentEditRate(1);
+        final List<SyncResult> results = sync.sync(getUserInfo(), workspaces, WorkspaceSync.Operation.PULL, MergingStrategy.KEEP_THEIRS);
+        assertThat(results.size(), is(2));
+        for (SyncResult result : results) {
+            assertThat(result.isSuccess(), is(true));
+            assertThat(result.getBranch(), is(Optional.of("master")));
+        }
+        assertThat(fileManager.getRemoteEdits(), is(2L));
+        assertThat(metrics.timer(ApiVCSMetrics.PULL).getCount(), is(2L));
+    }
+
+    @Test
+    public void mirrorsOrganizationIncrementallyAndResumes() throws IOException {
+        final File remote = createRepository();
+        final File t0 = new File(getTestDirectory("complex_project"), "master" + File.separator + "t0");
+        new File(remote, "1234").mkdirs();
+        new File(remote, "5678").mkdirs();
+        copy(t0, new File(remote, "1234" + File.separator + "master"));
+        copy(t0, new File(remote, "1234" + File.separator + "feature%2Fx"));
+        copy(t0, new File(remote, "5678" + File.separator + "master"));
+        final SimulatedRepositoryFileManager fileManager = new SimulatedRepositoryFileManager(remote, 7);
+        final File mirrorDirectory = createWorkspace();
+        final OrgMirror mirror = new OrgMirror(fileManager, mirrorDirectory, 2);
+
+        final MirrorManifest first = mirror.mirror(getUserInfo());
+        assertThat(first.isSuccess(), is(true));
+        assertThat(first.getEntries(MirrorEntry.Status.CREATED).size(), is(3));
+        assertThat(first.getFile().isFile(), is(true));
+        assertThat(new File(mirror.getBranchDirectory("5678", "master"), "Api.raml").isFile(), is(true));
+
+        Files.write(new File(remote, "5678" + File.separator + "master" + File.separator + "Api.raml").toPath(), "#%RAML 1.0\ntitle: Changed".getBytes("UTF-8"));
+        new File(remote, "1234" + File.separator + "master" + File.separator + "fragments" + File.separator + "MyTypes2.raml").delete();
+        //An interrupted run already finished 1234/master
+        final File journal = new File(new File(mirrorDirectory, OrgMirror.MIRROR_FOLDER_NAME), OrgMirror.JOURNAL_FILE_NAME);
+        Files.write(journal.toPath(), "1234\tmaster\tUNCHANGED\t0\t0\t0\t\n".getBytes("UTF-8"));
+
+        final MirrorManifest second = mirror.mirror(getUserInfo());
+        assertThat(second.isSuccess(), is(true));
+        assertThat(journal.exists(), is(false));
+        assertThat(MirrorManifest.read(second.getFile()).getEntries().size(), is(3));
+        assertThat(second.getEntries(MirrorEntry.Status.UNCHANGED).size(), is(2));
+        final List<MirrorEntry> updated = second.getEntries(MirrorEntry.Status.UPDATED);
+        assertThat(updated.size(), is(1));
+        assertThat(updated.get(0).getProjectId(), is("5678"));
+        assertThat(updated.get(0).getModified(), is(1));
+        //Resumed branches are picked up by the next run
+        assertThat(new File(mirror.getBranchDirectory("1234", "master"), "fragments" + File.separator + "MyTypes2.raml").isFile(), is(true));
+
+        final MirrorManifest third = mirror.mirror(getUserInfo());
+        final List<MirrorEntry> deleted = third.getEntries(MirrorEntry.Status.UPDATED);
+        assertThat(deleted.size(), is(1));
+        assertThat(deleted.get(0).getDeleted(), is(1));
+        assertThat(new File(mirror.getBranchDirectory("1234", "master"), "fragments" + File.separator + "MyTypes2.raml").exists(), is(false));
+    }
+
+    @Test
+    public void waitsForBranchLockedBySomeoneElse() throws Exception {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote();
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        client.setMetricsRegistry(metrics);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+
+        final MockUserInfoProvider colleague = new MockUserInfoProvider() {
+            @Override
+            public String getUserId() {
+                return "colleague";
+            }
+        };
+        assertThat(fileManager.acquireLock(colleague, "1234", "master").isSuccess(), is(true));
+        final ValueResult<Void> failed = client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(failed.isFailure(), is(true));
+        assertThat(metrics.counter(ApiVCSMetrics.LOCK_WAIT_TIMEOUTS).getValue(), is(1L));
+
+        final LockWaitPolicy lockWait = new LockWaitPolicy(10 * 1000);
+        lockWait.setPollMillis(10);
+        client.setLockWait(lockWait);
+        final List<String> owners = new ArrayList<>();
+        final Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            fileManager.releaseLock(colleague, "1234", "master");
+        });
+        releaser.start();
+        final ValueResult<Void> pull = client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, new DefaultMergeListener() {
+            @Override
+            public void waitingForLock(String owner, long waitedMillis, long maxWaitMillis) {
+                owners.add(owner);
+            }
+        });
+        releaser.join();
+        assertThat(pull.isSuccess(), is(true));
+        assertThat(owners.isEmpty(), is(false));
+        assertThat(owners.get(0), is("colleague"));
+        assertThat(metrics.counter(ApiVCSMetrics.LOCK_CONTENDED).getValue(), is(2L));
+        assertThat(metrics.counter(ApiVCSMetrics.LOCK_POLLS).getValue(), is((long) owners.size()));
+        assertThat(metrics.timer(ApiVCSMetrics.LOCK_WAIT).getCount(), is(2L));
+    }
+
+    @Test
+    public void retriesTransientFailuresAndOpensCircuitWhenRemoteIsDown() throws IOException {
+        final File workspace = createWorkspace();
+        final SimulatedRepositoryFileManager fileManager = simulatedRemote(11);
+        fileManager.setErrorRate(SimulatedOperation.FILE_CONTENT, 0.3);
+        final RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setMaxAttempts(20);
+        retryPolicy.setBackoff(1, 2, 2);
+        retryPolicy.setRetryBudget(RetryBudget.unlimited());
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(3, 60 * 1000);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        client.setResilience(retryPolicy, circuitBreaker);
+        assertThat(client.clone(getUserInfo(), createBranchInfo()).isSuccess(), is(true));
+        assertThat(fileManager.getFailures(SimulatedOperation.FILE_CONTENT) > 0, is(true));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+
+        fileManager.setErrorRate(SimulatedOperation.LIST_FILES, 1);
+        final long releases = fileManager.getCalls(SimulatedOperation.RELEASE_LOCK);
+        final ValueResult<Void> pull = client.pull(getUserInfo(), MergingStrategy.KEEP_THEIRS, getMergeListener());
+        assertThat(pull.isFailure(), is(true));
+        assertThat(pull.getMessage().orElse(""), containsString("remote service has been failing"));
+        assertThat(fileManager.getCalls(SimulatedOperation.LIST_FILES), is(1L + 3L));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        //The open circuit does not keep the branch locked
+        assertThat(fileManager.getCalls(SimulatedOperation.RELEASE_LOCK), is(releases + 1));
+    }
+
     @Test
     public void pullChangesWithModifications() throws IOException {
         final File workspace = createWorkspace();
@@ -630,6 +1268,49 @@ public class ApiVCSClientTest {
         assertThat(pushedContent, is(newFileContent));
     }
 
+    @Test
+    public void pushChangesInBatches() throws IOException {
+        final File workspace = createWorkspace();
+        final File dataDirectory = getTestDirectory("simple_clone");
+        final MockFileManager fileManager = new MockFileManager(dataDirectory);
+        final ApiVCSClient client = new ApiVCSClient(workspace, fileManager);
+        client.setPushBatchLimits(2, Long.MAX_VALUE);
+        client.clone(getUserInfo(), createBranchInfo());
+
+        final String newFileContent = "#%RAML 1.0 DataType\n" +
+                "type: string";
+        for (int i = 0; i < 5; i++) {
+            try (final FileWriter fileWriter = new FileWriter(new File(workspace, "Type" + i + ".raml"))) {
+                fileWriter.write(newFileContent);
+            }
+        }
+        final List<Diff> pushed = new ArrayList<>();
+        final ValueResult<Void> push = client.push(getUserInfo(), MergingStrategy.KEEP_BOTH, new DefaultMergeListener() {
+            @Override
+            public void pushing(Diff diff) {
+                pushed.add(diff);
+            }
+        });
+        assertThat(push.getMessage().orElse(""), push.isSuccess(), is(true));
+        assertThat(fileManager.getSavedBatches(), is(Arrays.asList(2, 2, 1)));
+        assertThat(pushed.size(), is(5));
+        assertThat(client.diff().doGetValue().isEmpty(), is(true));
+        for (int i = 0; i < 5; i++) {
+            final File type = new File(dataDirectory, "master" + File.separator + "t0" + File.separator + "Type" + i + ".raml");
+            assertThat(readFile(type), is(newFileContent));
+        }
+    }
+
+    private String print(List<Diff> diffs) {
+        final StringWriter content = new StringWriter();
+        final PrintWriter writer = new PrintWriter(content);
+        for (Diff diff : diffs) {
+            diff.print(writer);
+        }
+        writer.flush();
+        return content.toString();
+    }
+
     private String readFile(File api) throws IOException {
         final List<String> lines = Files.readAllLines(api.toPath(), BranchInfo.DEFAULT_CHARSET);
         return toString(lines);
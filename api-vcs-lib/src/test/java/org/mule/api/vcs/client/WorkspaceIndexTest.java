@@ -0,0 +1,55 @@
+package org.mule.api.vcs.client;
+
+import org.junit.Test;
+import org.mule.api.vcs.client.diff.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class WorkspaceIndexTest {
+
+    @Test
+    public void reconfirmedRacyEntryIsTrustedByStatAfterTheNextSave() throws IOException, InterruptedException {
+        final File directory = ApiVCSClientTest.createWorkspace();
+        final File file = new File(directory, "Api.raml");
+        Files.write(file.toPath(), "#%RAML 1.0\ntitle: api\n".getBytes(BranchInfo.DEFAULT_CHARSET));
+        final long lastModified = System.currentTimeMillis() - 1500;
+        file.setLastModified(lastModified);
+        final String hash = FileUtils.contentHash(Files.readAllBytes(file.toPath()));
+
+        final WorkspaceIndex index = WorkspaceIndex.load(directory);
+        index.markUnchanged("Api.raml", file, hash);
+        //Written right after the file was modified, the entry is racy
+        index.save();
+
+        Thread.sleep(1000);
+        final WorkspaceIndex reloaded = WorkspaceIndex.load(directory);
+        assertThat(reloaded.isUnchanged("Api.raml", file, hash), is(true));
+        reloaded.save();
+
+        //Same size and modification time, only a stat check can consider them equal
+        Files.write(file.toPath(), "#%RAML 1.0\nTITLE: API\n".getBytes(BranchInfo.DEFAULT_CHARSET));
+        file.setLastModified(lastModified);
+        assertThat(WorkspaceIndex.load(directory).isUnchanged("Api.raml", file, hash), is(true));
+    }
+
+    @Test
+    public void saveReplacesTheIndexFile() throws IOException {
+        final File directory = ApiVCSClientTest.createWorkspace();
+        final File file = new File(directory, "Api.raml");
+        Files.write(file.toPath(), "#%RAML 1.0\ntitle: api\n".getBytes(BranchInfo.DEFAULT_CHARSET));
+        final WorkspaceIndex index = WorkspaceIndex.load(directory);
+        index.markUnchanged("Api.raml", file, "1234");
+        index.save();
+        index.markUnchanged("Other.raml", file, "1234");
+        index.save();
+
+        assertThat(index.isCurrent(), is(true));
+        assertThat(WorkspaceIndex.load(directory).size(), is(2));
+        assertThat(new File(directory, WorkspaceIndex.INDEX_FILE_NAME + ".tmp").exists(), is(false));
+    }
+}
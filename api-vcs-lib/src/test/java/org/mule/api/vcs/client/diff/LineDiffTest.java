@@ -0,0 +1,55 @@
+package org.mule.api.vcs.client.diff;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Patch;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LineDiffTest {
+
+    @Test
+    public void lineDiffMatchesDiffUtils() throws Exception {
+        final Random random = new Random(21);
+        for (int round = 0; round < 50; round++) {
+            final List<String> original = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                //Few distinct lines so the diff has to choose between many equivalent matches
+                original.add("line " + random.nextInt(20));
+            }
+            final List<String> revised = new ArrayList<>(original);
+            for (int edit = 0; edit < 10; edit++) {
+                final int at = random.nextInt(revised.size());
+                switch (random.nextInt(3)) {
+                    case 0:
+                        revised.add(at, "added " + random.nextInt(5));
+                        break;
+                    case 1:
+                        revised.remove(at);
+                        break;
+                    default:
+                        revised.set(at, "changed " + random.nextInt(5));
+                }
+            }
+            final Patch<String> patch = LineDiff.diff(original, revised);
+            assertThat(DiffUtils.patch(original, patch), is(revised));
+            //Equivalent matches may be picked differently but the edit has to be as small
+            assertThat(editedLines(patch), is(editedLines(DiffUtils.diff(original, revised))));
+        }
+    }
+
+    private static int editedLines(Patch<String> patch) {
+        int edited = 0;
+        for (AbstractDelta<String> delta : patch.getDeltas()) {
+            edited += delta.getSource().size() + delta.getTarget().size();
+        }
+        return edited;
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.mule.api.vcs.client.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class InMemoryHistogramTest {
+
+    @Test
+    public void histogramPercentilesAreWithinPrecision() {
+        final InMemoryHistogram histogram = new InMemoryHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertThat(Math.abs(histogram.getPercentile(50) - 50_000) <= 50_000 / 64, is(true));
+        assertThat(Math.abs(histogram.getPercentile(99) - 99_000) <= 99_000 / 64, is(true));
+        assertThat(Math.abs(histogram.getPercentile(99.9) - 99_900) <= 99_900 / 64, is(true));
+        assertThat(histogram.getPercentile(100), is(100_000L));
+        assertThat(histogram.getMin(), is(1L));
+    }
+
+}
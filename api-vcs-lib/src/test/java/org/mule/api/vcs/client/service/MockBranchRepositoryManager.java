@@ -1,5 +1,7 @@
 package org.mule.api.vcs.client.service;
 
+import org.mule.api.vcs.client.diff.FileUtils;
+
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
@@ -11,13 +13,28 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class MockBranchRepositoryManager implements BranchRepositoryManager {
 
     private File branchDirectory;
+    private List<Integer> savedBatches;
+    private List<String> fetchedFiles;
+    private boolean exposeVersions;
 
     public MockBranchRepositoryManager(File branchDirectory) {
+        this(branchDirectory, new ArrayList<>());
+    }
+
+    public MockBranchRepositoryManager(File branchDirectory, List<Integer> savedBatches) {
+        this(branchDirectory, savedBatches, new ArrayList<>(), false);
+    }
+
+    public MockBranchRepositoryManager(File branchDirectory, List<Integer> savedBatches, List<String> fetchedFiles, boolean exposeVersions) {
         this.branchDirectory = branchDirectory;
+        this.savedBatches = savedBatches;
+        this.fetchedFiles = fetchedFiles;
+        this.exposeVersions = exposeVersions;
     }
 
     @Override
@@ -31,9 +48,9 @@ public class MockBranchRepositoryManager implements BranchRepositoryManager {
         try (final FileOutputStream fileWriter = new FileOutputStream(new File(branchDirectory, path))) {
             fileWriter.write(content);
         } catch (IOException e) {
-
+            return false;
         }
-        return false;
+        return true;
     }
 
     @Override
@@ -41,9 +58,15 @@ public class MockBranchRepositoryManager implements BranchRepositoryManager {
         try (final FileOutputStream fileWriter = new FileOutputStream(new File(branchDirectory, path))) {
             fileWriter.write(content);
         } catch (IOException e) {
-
+            return false;
         }
-        return false;
+        return true;
+    }
+
+    @Override
+    public boolean saveFiles(List<ApiFileUpdate> files) {
+        savedBatches.add(files.size());
+        return BranchRepositoryManager.super.saveFiles(files);
     }
 
     @Override
@@ -55,7 +78,9 @@ public class MockBranchRepositoryManager implements BranchRepositoryManager {
 
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    result.add(new ApiFile(root.relativize(file).toString(), ApiFileType.FILE));
+                    //Stand in for the ETag a real service would return
+                    final String version = exposeVersions ? FileUtils.contentHash(Files.readAllBytes(file)) : null;
+                    result.add(new ApiFile(root.relativize(file).toString(), ApiFileType.FILE, version));
                     return FileVisitResult.CONTINUE;
                 }
 
@@ -68,12 +93,32 @@ public class MockBranchRepositoryManager implements BranchRepositoryManager {
         return result;
     }
 
+    @Override
+    public Optional<ApiFileContent> fileContentIfModified(String path, ApiFileValidators validators) {
+        try {
+            final byte[] bytes = Files.readAllBytes(new File(branchDirectory, path).toPath());
+            if (validators.getEtag().isPresent() && validators.getEtag().get().equals(etag(bytes))) {
+                return Optional.empty();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return Optional.of(fileContent(path));
+    }
+
+    private String etag(byte[] bytes) {
+        return "\"" + FileUtils.contentHash(bytes) + "\"";
+    }
+
     @Override
     public ApiFileContent fileContent(String path) {
+        synchronized (fetchedFiles) {
+            fetchedFiles.add(path);
+        }
         try {
             final File file = new File(branchDirectory, path);
             final byte[] bytes = Files.readAllBytes(file.toPath());
-            return new ApiFileContent(bytes, Files.probeContentType(file.toPath()));
+            return new ApiFileContent(bytes, Files.probeContentType(file.toPath()), new ApiFileValidators(etag(bytes), null));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -11,6 +11,9 @@ public class MockFileManager implements RepositoryFileManager {
 
     private File directory;
     private Map<String, Integer> counters = new HashMap<>();
+    private List<Integer> savedBatches = new ArrayList<>();
+    private List<String> fetchedFiles = new ArrayList<>();
+    private boolean exposeVersions;
 
     public MockFileManager(File directory) {
         this.directory = directory;
@@ -24,7 +27,19 @@ public class MockFileManager implements RepositoryFileManager {
             counter = counter + 1;
         }
         counters.put(branchName, counter);
-        return new BranchRepositoryLock(true, "acme", new MockBranchRepositoryManager(branchDirectory));
+        return new BranchRepositoryLock(true, "acme", new MockBranchRepositoryManager(branchDirectory, savedBatches, fetchedFiles, exposeVersions));
+    }
+
+    public List<Integer> getSavedBatches() {
+        return savedBatches;
+    }
+
+    public List<String> getFetchedFiles() {
+        return fetchedFiles;
+    }
+
+    public void setExposeVersions(boolean exposeVersions) {
+        this.exposeVersions = exposeVersions;
     }
 
     private File getBranchDirectory(String branchName, int counter) {
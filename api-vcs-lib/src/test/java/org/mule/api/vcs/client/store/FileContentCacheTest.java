@@ -0,0 +1,28 @@
+package org.mule.api.vcs.client.store;
+
+import org.junit.Test;
+import org.mule.api.vcs.client.service.ApiFileContent;
+import org.mule.api.vcs.client.service.ApiFileValidators;
+
+import java.io.File;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.api.vcs.client.ApiVCSClientTest.createWorkspace;
+
+public class FileContentCacheTest {
+
+    @Test
+    public void contentCacheEvictsLeastRecentlyUsed() {
+        final FileContentCache cache = new FileContentCache(new File(createWorkspace(), FileContentCache.CACHE_FOLDER_NAME), 10);
+        final ApiFileValidators validators = new ApiFileValidators("\"1\"", null);
+        cache.put("a", new ApiFileContent(new byte[4], "text/plain", validators));
+        cache.put("b", new ApiFileContent(new byte[4], "text/plain", validators));
+        assertThat(cache.get("a").isPresent(), is(true));
+        cache.put("c", new ApiFileContent(new byte[4], "text/plain", validators));
+        assertThat(cache.get("a").isPresent(), is(true));
+        assertThat(cache.get("b").isPresent(), is(false));
+        assertThat(cache.getTotalBytes(), is(8L));
+    }
+
+}